@@ -0,0 +1,21 @@
+package io.polyapi.commons.api.error;
+
+/**
+ * Exception thrown when a request cannot finish before the deadline of the call that made it.
+ */
+public class DeadlineExceededException extends PolyApiException {
+
+  /**
+   * @see PolyApiException#PolyApiException(String)
+   */
+  public DeadlineExceededException(String message) {
+    super(message);
+  }
+
+  /**
+   * @see PolyApiException#PolyApiException(String, Throwable)
+   */
+  public DeadlineExceededException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,16 @@
+package io.polyapi.commons.api.http;
+
+import java.time.Instant;
+
+/**
+ * Token fetched from a {@link TokenSource}.
+ *
+ * @param value     The token.
+ * @param expiresAt The moment the token expires, or null if it doesn't.
+ */
+public record AccessToken(String value, Instant expiresAt) {
+
+  public AccessToken(String value) {
+    this(value, null);
+  }
+}
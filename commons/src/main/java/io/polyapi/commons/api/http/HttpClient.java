@@ -2,11 +2,30 @@ package io.polyapi.commons.api.http;
 
 import io.polyapi.commons.internal.http.HttpRequestBuilder;
 
-public interface HttpClient {
+import java.util.concurrent.CompletableFuture;
+
+public interface HttpClient extends AutoCloseable {
 
   HttpRequestBuilder prepareRequest(String host, Integer port, HttpMethod method, String relativePath);
 
   HttpRequestBuilder prepareAuthenticatedRequest(String host, Integer port, HttpMethod method, String relativePath);
 
   Response send(Request request);
+
+  /**
+   * Sends a request without blocking the calling thread. The returned {@link CompletableFuture} is completed by the
+   * underlying transport once the response is received, or exceptionally if the request fails or the response status
+   * is handled as an error. Cancelling the future cancels the ongoing call.
+   *
+   * @param request The request to send.
+   * @return CompletableFuture The future {@link Response}.
+   */
+  CompletableFuture<Response> sendAsync(Request request);
+
+  /**
+   * Releases the resources held by the client, such as connection and thread pools. By default, it does nothing.
+   */
+  @Override
+  default void close() {
+  }
 }
@@ -4,9 +4,6 @@ import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
-import static java.lang.String.format;
-import static java.util.stream.Collectors.joining;
-
 public interface Request {
   String host();
 
@@ -16,17 +13,26 @@ public interface Request {
 
   Map<String, List<String>> queryParams();
 
+  /**
+   * Composes the URL of the request in a single pass.
+   *
+   * @return String The URL, with the query parameters in the order they were added.
+   */
   default String getUrl() {
-    return format("%s:%s/%s%s%s",
-      host(),
-      port(),
-      relativePath(),
-      queryParams().entrySet().isEmpty() ? "" : "?",
-      queryParams().entrySet().stream()
-        .map(entry -> entry.getValue().stream()
-          .map(subEntry -> format("%s=%s", entry.getKey(), subEntry))
-          .collect(joining("&")))
-        .collect(joining("&")));
+    var url = new StringBuilder(host().length() + relativePath().length() + 16)
+      .append(host())
+      .append(':')
+      .append(port())
+      .append('/')
+      .append(relativePath());
+    char separator = '?';
+    for (var entry : queryParams().entrySet()) {
+      for (var value : entry.getValue()) {
+        url.append(separator).append(entry.getKey()).append('=').append(value);
+        separator = '&';
+      }
+    }
+    return url.toString();
   }
 
   Map<String, List<String>> headers();
@@ -34,4 +40,14 @@ public interface Request {
   InputStream body();
 
   HttpMethod method();
+
+  /**
+   * Retrieves the time in milliseconds that the whole request, including retries and waits, may take. When set, it
+   * overrides the connect, read and write timeouts of the client as the limit of the request.
+   *
+   * @return Long The timeout of the request, or null if it only has the timeouts of the client.
+   */
+  default Long timeoutMillis() {
+    return null;
+  }
 }
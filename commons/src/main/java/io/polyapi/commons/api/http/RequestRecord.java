@@ -4,5 +4,9 @@ import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
-public record RequestRecord(String host, String relativePath, Integer port, Map<String, List<String>> queryParams, HttpMethod method, Map<String, List<String>> headers, InputStream body) implements Request {
+public record RequestRecord(String host, String relativePath, Integer port, Map<String, List<String>> queryParams, HttpMethod method, Map<String, List<String>> headers, InputStream body, Long timeoutMillis) implements Request {
+
+  public RequestRecord(String host, String relativePath, Integer port, Map<String, List<String>> queryParams, HttpMethod method, Map<String, List<String>> headers, InputStream body) {
+    this(host, relativePath, port, queryParams, method, headers, body, null);
+  }
 }
@@ -22,4 +22,15 @@ public interface TokenProvider {
    * @return String the token.
    */
   String getToken();
+
+  /**
+   * Discards a token rejected by the server so that the request can be retried with a new one. Concurrent calls for the
+   * same token share a single renewal. Providers that can't renew their token keep it.
+   *
+   * @param rejectedTokenHeader The rejected token, formatted as in {@link #getTokenAsHeader()}.
+   * @return boolean Whether there's a different token to retry the request with.
+   */
+  default boolean renew(String rejectedTokenHeader) {
+    return false;
+  }
 }
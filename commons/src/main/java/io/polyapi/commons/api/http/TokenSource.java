@@ -0,0 +1,19 @@
+package io.polyapi.commons.api.http;
+
+/**
+ * Source of the short-lived tokens used to authenticate to PolyAPI, such as an identity provider or a secrets manager.
+ * It is called whenever the current token is about to expire or is rejected, never concurrently.
+ * <p>
+ * The client loads the first implementation registered as a {@link java.util.ServiceLoader} provider in
+ * 'META-INF/services/io.polyapi.commons.api.http.TokenSource', and uses the API key of the configuration if there is none.
+ */
+@FunctionalInterface
+public interface TokenSource {
+
+  /**
+   * Fetches a new token.
+   *
+   * @return AccessToken The token and its expiration.
+   */
+  AccessToken fetch();
+}
@@ -0,0 +1,55 @@
+package io.polyapi.commons.api.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * Receiver of the metrics of the requests to the PolyAPI service. All the methods do nothing by default, so
+ * implementations only need to override what they record. Implementations are called on the request path and must be
+ * thread safe and non-blocking.
+ * <p>
+ * The client loads the first implementation registered as a {@link java.util.ServiceLoader} provider in
+ * 'META-INF/services/io.polyapi.commons.api.metrics.PolyMetrics', and uses {@link #NOOP} if there is none.
+ */
+public interface PolyMetrics {
+
+  /**
+   * Implementation that records nothing.
+   */
+  PolyMetrics NOOP = new PolyMetrics() {
+  };
+
+  /**
+   * Called when a request starts, before its body is serialized. Each call is followed by a call to
+   * {@link #recordRequest(RequestMetrics)} for the same operation, so the difference is the amount of requests in flight.
+   *
+   * @param operation The relative path of the request, which contains the ID of the function or variable.
+   */
+  default void requestStarted(String operation) {
+  }
+
+  /**
+   * Called when a request finishes, successfully or not.
+   *
+   * @param metrics The metrics of the request.
+   */
+  default void recordRequest(RequestMetrics metrics) {
+  }
+
+  /**
+   * Called when a request is retried.
+   *
+   * @param operation The relative path of the request.
+   * @param attempt   The number of the attempt about to be made, starting at 2 for the first retry.
+   */
+  default void recordRetry(String operation, int attempt) {
+  }
+
+  /**
+   * Registers a value that is read when the metrics are collected, such as the hits of a cache.
+   *
+   * @param name  The name of the value.
+   * @param value The supplier of the current value.
+   */
+  default void registerGauge(String name, Supplier<Number> value) {
+  }
+}
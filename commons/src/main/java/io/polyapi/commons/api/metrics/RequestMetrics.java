@@ -0,0 +1,31 @@
+package io.polyapi.commons.api.metrics;
+
+import io.polyapi.commons.api.http.HttpMethod;
+
+/**
+ * Metrics of a single request to the PolyAPI service. Durations are in nanoseconds and sizes in bytes.
+ *
+ * @param operation            The relative path of the request, which contains the ID of the function or variable.
+ * @param method               The HTTP method of the request.
+ * @param statusCode           The status code of the response, or 0 if no response was received.
+ * @param requestBytes         The size of the request body.
+ * @param responseBytes        The size of the response body, or -1 if it's unknown, such as for streamed responses.
+ * @param serializationNanos   The time spent serializing the request body.
+ * @param networkNanos         The time from sending the request until the response is received.
+ * @param deserializationNanos The time spent parsing the response body.
+ * @param error                The error of the request, or null if it succeeded.
+ */
+public record RequestMetrics(String operation,
+                             HttpMethod method,
+                             int statusCode,
+                             long requestBytes,
+                             long responseBytes,
+                             long serializationNanos,
+                             long networkNanos,
+                             long deserializationNanos,
+                             Throwable error) {
+
+  public long totalNanos() {
+    return serializationNanos + networkNanos + deserializationNanos;
+  }
+}
@@ -0,0 +1,96 @@
+package io.polyapi.commons.api.service;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Point in time by which a call, and every request made on its behalf, must finish. A deadline applies to the requests
+ * sent from the thread that runs {@link #call(Deadline, Supplier)}, which get the remaining time as their timeout.
+ * Deadlines nest: a call made within another one gets the earlier of both, so nested invocations never exceed the
+ * budget left to the outer call.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * var result = Deadline.call(Deadline.after(200), () -> Poly.myContext.lookup(key));
+ * }</pre>
+ */
+public final class Deadline {
+    private static final ThreadLocal<Deadline> current = new ThreadLocal<>();
+
+    private final long expirationNanos;
+
+    private Deadline(long expirationNanos) {
+        this.expirationNanos = expirationNanos;
+    }
+
+    /**
+     * Creates a deadline that expires after the given time from now.
+     *
+     * @param timeoutMillis The time in milliseconds.
+     * @return Deadline The deadline.
+     */
+    public static Deadline after(long timeoutMillis) {
+        return new Deadline(System.nanoTime() + MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    /**
+     * Retrieves the deadline of the call that runs in the current thread.
+     *
+     * @return Optional The deadline, if there's one.
+     */
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(current.get());
+    }
+
+    /**
+     * Runs a call with a deadline. If there is already a deadline in the current thread, the earlier one applies.
+     *
+     * @param deadline The deadline of the call.
+     * @param call     The call.
+     * @param <T>      The type of the result.
+     * @return T The result of the call.
+     */
+    public static <T> T call(Deadline deadline, Supplier<T> call) {
+        var previous = current.get();
+        current.set(previous == null || deadline.expirationNanos - previous.expirationNanos < 0 ? deadline : previous);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs a call that returns nothing with a deadline. See {@link #call(Deadline, Supplier)}.
+     *
+     * @param deadline The deadline of the call.
+     * @param call     The call.
+     */
+    public static void run(Deadline deadline, Runnable call) {
+        call(deadline, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Retrieves the time left, rounded up to the next millisecond.
+     *
+     * @return long The time left in milliseconds, or 0 if the deadline has expired.
+     */
+    public long remainingMillis() {
+        long remainingNanos = expirationNanos - System.nanoTime();
+        return remainingNanos <= 0 ? 0 : NANOSECONDS.toMillis(remainingNanos + 999_999);
+    }
+
+    public boolean isExpired() {
+        return expirationNanos - System.nanoTime() <= 0;
+    }
+}
@@ -1,5 +1,6 @@
 package io.polyapi.commons.api.service;
 
+import io.polyapi.commons.api.error.DeadlineExceededException;
 import io.polyapi.commons.api.error.parse.ParsingException;
 import io.polyapi.commons.api.error.parse.UnsupportedContentTypeException;
 import io.polyapi.commons.api.http.HttpClient;
@@ -7,18 +8,21 @@ import io.polyapi.commons.api.http.HttpMethod;
 import io.polyapi.commons.api.http.Request;
 import io.polyapi.commons.api.http.Response;
 import io.polyapi.commons.api.json.JsonParser;
+import io.polyapi.commons.api.metrics.PolyMetrics;
 import lombok.extern.slf4j.Slf4j;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static io.polyapi.commons.api.http.HttpMethod.*;
+import static java.lang.String.format;
 import static java.nio.charset.Charset.defaultCharset;
 import static java.util.function.Predicate.not;
 
@@ -27,20 +31,61 @@ import static java.util.function.Predicate.not;
  */
 @Slf4j
 public class PolyApiService {
+    private static final String CONTENT_TYPE = "Content-type";
     private final String host;
     private final Integer port;
     private final HttpClient client;
     private final JsonParser jsonParser;
+    private final RequestCoalescer coalescer;
+    private final PolyMetrics metrics;
 
     public PolyApiService(HttpClient client, JsonParser jsonParser, String host, Integer port) {
+        this(client, jsonParser, host, port, false);
+    }
+
+    /**
+     * Creates the service.
+     *
+     * @param client        The client used to send the requests.
+     * @param jsonParser    The parser of the bodies.
+     * @param host          The host of the PolyAPI service.
+     * @param port          The port of the PolyAPI service.
+     * @param coalesceReads Whether identical GET requests made concurrently share a single request and its result.
+     */
+    public PolyApiService(HttpClient client, JsonParser jsonParser, String host, Integer port, boolean coalesceReads) {
+        this(client, jsonParser, host, port, coalesceReads, PolyMetrics.NOOP);
+    }
+
+    /**
+     * Creates the service.
+     *
+     * @param client        The client used to send the requests.
+     * @param jsonParser    The parser of the bodies.
+     * @param host          The host of the PolyAPI service.
+     * @param port          The port of the PolyAPI service.
+     * @param coalesceReads Whether identical GET requests made concurrently share a single request and its result.
+     * @param metrics       The receiver of the metrics of each request.
+     */
+    public PolyApiService(HttpClient client, JsonParser jsonParser, String host, Integer port, boolean coalesceReads, PolyMetrics metrics) {
         this.client = client;
         this.jsonParser = jsonParser;
         this.host = host;
         this.port = port;
+        this.coalescer = coalesceReads ? new RequestCoalescer() : null;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Retrieves the coalescer of GET requests, which holds the count of executed and coalesced requests.
+     *
+     * @return Optional The coalescer, if enabled.
+     */
+    public Optional<RequestCoalescer> getRequestCoalescer() {
+        return Optional.ofNullable(coalescer);
     }
 
     public <O> O get(String relativePath, Type expectedResponseType) {
-        return get(relativePath, new HashMap<>(), new HashMap<>(), expectedResponseType);
+        return get(relativePath, Map.of(), Map.of(), expectedResponseType);
     }
 
     public <O> O get(String relativePath,
@@ -51,7 +96,7 @@ public class PolyApiService {
     }
 
     public <I, O> O post(String relativePath, I body, Type expectedResponseType) {
-        return post(relativePath, new HashMap<>(), new HashMap<>(), body, expectedResponseType);
+        return post(relativePath, Map.of(), Map.of(), body, expectedResponseType);
     }
 
     public <I, O> O post(String relativePath,
@@ -63,7 +108,7 @@ public class PolyApiService {
     }
 
     public <I> void patch(String relativePath, I body) {
-        parsedCall(PATCH, relativePath, new HashMap<>(), new HashMap<>(), body, Void.TYPE);
+        parsedCall(PATCH, relativePath, Map.of(), Map.of(), body, Void.TYPE);
     }
 
     public <I> void patch(String relativePath,
@@ -74,7 +119,7 @@ public class PolyApiService {
     }
 
     public void delete(String relativePath) {
-        delete(relativePath, new HashMap<>(), new HashMap<>(), null);
+        delete(relativePath, Map.of(), Map.of(), null);
     }
 
     public <I> void delete(String relativePath,
@@ -84,25 +129,144 @@ public class PolyApiService {
         parsedCall(DELETE, relativePath, headers, queryParams, body, Void.TYPE);
     }
 
+    public <O> CompletableFuture<O> getAsync(String relativePath, Type expectedResponseType) {
+        return getAsync(relativePath, Map.of(), Map.of(), expectedResponseType);
+    }
+
+    public <O> CompletableFuture<O> getAsync(String relativePath,
+                                             Map<String, List<String>> headers,
+                                             Map<String, List<String>> queryParams,
+                                             Type expectedResponseType) {
+        return parsedCallAsync(GET, relativePath, headers, queryParams, null, expectedResponseType);
+    }
+
+    public <I, O> CompletableFuture<O> postAsync(String relativePath, I body, Type expectedResponseType) {
+        return postAsync(relativePath, Map.of(), Map.of(), body, expectedResponseType);
+    }
+
+    public <I, O> CompletableFuture<O> postAsync(String relativePath,
+                                                 Map<String, List<String>> headers,
+                                                 Map<String, List<String>> queryParams,
+                                                 I body,
+                                                 Type expectedResponseType) {
+        return parsedCallAsync(POST, relativePath, headers, queryParams, body, expectedResponseType);
+    }
+
+    public <I> CompletableFuture<Void> patchAsync(String relativePath, I body) {
+        return parsedCallAsync(PATCH, relativePath, Map.of(), Map.of(), body, Void.TYPE);
+    }
+
+    public <I> CompletableFuture<Void> patchAsync(String relativePath,
+                                                  Map<String, List<String>> headers,
+                                                  Map<String, List<String>> queryParams,
+                                                  I body) {
+        return parsedCallAsync(PATCH, relativePath, headers, queryParams, body, Void.TYPE);
+    }
+
+    public CompletableFuture<Void> deleteAsync(String relativePath) {
+        return deleteAsync(relativePath, Map.of(), Map.of(), null);
+    }
+
+    public <I> CompletableFuture<Void> deleteAsync(String relativePath,
+                                                   Map<String, List<String>> headers,
+                                                   Map<String, List<String>> queryParams,
+                                                   I body) {
+        return parsedCallAsync(DELETE, relativePath, headers, queryParams, body, Void.TYPE);
+    }
+
     private <I, O> O parsedCall(HttpMethod method,
                                 String relativePath,
                                 Map<String, List<String>> headers,
                                 Map<String, List<String>> queryParams,
                                 I body,
                                 Type expectedResponseType) {
+        if (isCoalesced(method, expectedResponseType)) {
+            return coalescer.execute(coalescingKey(method, relativePath, headers, queryParams, body, expectedResponseType),
+                    () -> measuredCall(method, relativePath, headers, queryParams, body, expectedResponseType));
+        }
+        return measuredCall(method, relativePath, headers, queryParams, body, expectedResponseType);
+    }
+
+    private <I, O> O measuredCall(HttpMethod method,
+                                  String relativePath,
+                                  Map<String, List<String>> headers,
+                                  Map<String, List<String>> queryParams,
+                                  I body,
+                                  Type expectedResponseType) {
+        var sample = new RequestSample(metrics, relativePath, method);
+        try {
+            var request = sample.serialized(prepareRequest(method, relativePath, headers, queryParams, body));
+            O result = parseResponse(method, relativePath, sample.received(client.send(request)), expectedResponseType);
+            sample.succeeded();
+            return result;
+        } catch (RuntimeException e) {
+            sample.failed(e);
+            throw e;
+        }
+    }
+
+    private <I, O> CompletableFuture<O> parsedCallAsync(HttpMethod method,
+                                                        String relativePath,
+                                                        Map<String, List<String>> headers,
+                                                        Map<String, List<String>> queryParams,
+                                                        I body,
+                                                        Type expectedResponseType) {
+        if (isCoalesced(method, expectedResponseType)) {
+            return coalescer.executeAsync(coalescingKey(method, relativePath, headers, queryParams, body, expectedResponseType),
+                    () -> measuredCallAsync(method, relativePath, headers, queryParams, body, expectedResponseType));
+        }
+        return measuredCallAsync(method, relativePath, headers, queryParams, body, expectedResponseType);
+    }
 
-        Map<String, List<String>> allHeaders = new HashMap<>();
-        allHeaders.put("Content-type", List.of("application/json"));
-        headers.forEach((key, value) -> allHeaders.put(key, value.stream().toList()));
+    private <I, O> CompletableFuture<O> measuredCallAsync(HttpMethod method,
+                                                          String relativePath,
+                                                          Map<String, List<String>> headers,
+                                                          Map<String, List<String>> queryParams,
+                                                          I body,
+                                                          Type expectedResponseType) {
+        var sample = new RequestSample(metrics, relativePath, method);
+        CompletableFuture<Response> call;
+        try {
+            call = client.sendAsync(sample.serialized(prepareRequest(method, relativePath, headers, queryParams, body)));
+        } catch (RuntimeException e) {
+            sample.failed(e);
+            throw e;
+        }
+        CompletableFuture<O> result = call.thenApply(response -> parseResponse(method, relativePath, sample.received(response), expectedResponseType));
+        result.whenComplete((response, throwable) -> {
+            if (throwable == null) {
+                sample.succeeded();
+            } else {
+                sample.failed(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+            }
+            // Cancelling the dependent future doesn't cancel its source, so it's propagated to cancel the ongoing call.
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Only reads are coalesced, and never when the result is a stream, as it can only be consumed once. Calls made
+     * within a {@link Deadline} aren't coalesced either, as they would wait for an identical call with a later deadline
+     * or share the failure of an expired one.
+     */
+    private boolean isCoalesced(HttpMethod method, Type expectedResponseType) {
+        return coalescer != null && method == GET && !(expectedResponseType instanceof Class<?> type && InputStream.class.isAssignableFrom(type))
+                && Deadline.current().isEmpty();
+    }
 
-        Response response = callApi(
-                method,
-                relativePath,
-                allHeaders,
-                queryParams,
-                jsonParser.toJsonInputStream(body)
-        );
+    private <I> String coalescingKey(HttpMethod method,
+                                     String relativePath,
+                                     Map<String, List<String>> headers,
+                                     Map<String, List<String>> queryParams,
+                                     I body,
+                                     Type expectedResponseType) {
+        return format("%s %s %s %s %s %s", method, relativePath, headers, queryParams, body == null ? "" : jsonParser.toJsonString(body), expectedResponseType.getTypeName());
+    }
 
+    private <O> O parseResponse(HttpMethod method, String relativePath, Response response, Type expectedResponseType) {
         log.debug("Response is successful. Status code is {}.", response.statusCode());
         log.debug("Parsing response.");
 
@@ -122,8 +286,9 @@ public class PolyApiService {
         } catch (IOException ignored) {
         }
 
+        O parsed = null;
         try {
-            O parsed = Optional.of(expectedResponseType)
+            parsed = Optional.of(expectedResponseType)
                     .filter(not(Void.TYPE::equals))
                     .map(type -> {
                         String contentType = response.headers()
@@ -174,6 +339,15 @@ public class PolyApiService {
             log.error("Failed to parse response from {} {} (first {} bytes):\n{}",
                     method, relativePath, previewLen, snippet);
             throw ex;
+        } finally {
+            // Streamed bodies hold the connection until closed, so unless the stream itself is handed over to the caller it is released here.
+            if (parsed != bodyStream) {
+                try {
+                    bodyStream.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close response body from {} {}.", method, relativePath, e);
+                }
+            }
         }
     }
 
@@ -183,19 +357,29 @@ public class PolyApiService {
                 || TypeVariable.class.isAssignableFrom(type.getClass());
     }
 
-    private Response callApi(HttpMethod method,
-                             String relativePath,
-                             Map<String, List<String>> headers,
-                             Map<String, List<String>> queryParams,
-                             InputStream body) {
-
-        Request request = client.prepareAuthenticatedRequest(host, port, method, relativePath)
-                .withHeaders(headers)
+    private <I> Request prepareRequest(HttpMethod method,
+                                       String relativePath,
+                                       Map<String, List<String>> headers,
+                                       Map<String, List<String>> queryParams,
+                                       I body) {
+        var deadline = Deadline.current();
+        if (deadline.filter(Deadline::isExpired).isPresent()) {
+            throw new DeadlineExceededException(format("Deadline expired before sending %s request to %s.", method, relativePath));
+        }
+        var builder = client.prepareAuthenticatedRequest(host, port, method, relativePath);
+        // The headers given by the caller replace the default content type, whatever the case they use.
+        if (headers.keySet().stream().noneMatch(CONTENT_TYPE::equalsIgnoreCase)) {
+            builder.withHeader(CONTENT_TYPE, "application/json");
+        }
+        Request request = builder.withHeaders(headers)
                 .withQueryParams(queryParams)
-                .withBody(body)
+                .withBody(jsonParser.toJsonInputStream(body))
+                .withTimeoutMillis(deadline.map(Deadline::remainingMillis).orElse(null))
                 .build();
 
-        log.debug("Executing authenticated {} request with target {}", method, request.getUrl());
-        return client.send(request);
+        if (log.isDebugEnabled()) {
+            log.debug("Executing authenticated {} request with target {}", method, request.getUrl());
+        }
+        return request;
     }
 }
@@ -0,0 +1,119 @@
+package io.polyapi.commons.api.service;
+
+import io.polyapi.commons.api.error.PolyApiException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Shares the result of a call between all the identical calls made while it is in flight, so that a burst of
+ * identical reads results in a single request to the server.
+ */
+@Slf4j
+public class RequestCoalescer {
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Executes a call unless an identical one is in flight, in which case it waits for its result.
+     *
+     * @param key  The key that identifies identical calls.
+     * @param call The call to execute.
+     * @param <O>  The type of the result.
+     * @return O The result of the call.
+     */
+    @SuppressWarnings("unchecked")
+    public <O> O execute(String key, Supplier<O> call) {
+        var future = new CompletableFuture<Object>();
+        var existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            log.debug("Joining in-flight call {}.", key);
+            coalesced.increment();
+            try {
+                return (O) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw new PolyApiException(e.getCause());
+            }
+        }
+        executed.increment();
+        try {
+            O result = call.get();
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors are shared too, otherwise the calls waiting for this one would never end.
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Executes an asynchronous call unless an identical one is in flight, in which case its result is shared.
+     * Cancelling the returned future doesn't cancel the shared call.
+     *
+     * @param key  The key that identifies identical calls.
+     * @param call The call to execute.
+     * @param <O>  The type of the result.
+     * @return CompletableFuture The future result of the call.
+     */
+    @SuppressWarnings("unchecked")
+    public <O> CompletableFuture<O> executeAsync(String key, Supplier<CompletableFuture<O>> call) {
+        var future = new CompletableFuture<Object>();
+        var existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            log.debug("Joining in-flight call {}.", key);
+            coalesced.increment();
+            return existing.thenApply(result -> (O) result);
+        }
+        executed.increment();
+        try {
+            call.get().whenComplete((result, throwable) -> {
+                inFlight.remove(key, future);
+                if (throwable == null) {
+                    future.complete(result);
+                } else {
+                    future.completeExceptionally(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                }
+            });
+        } catch (Throwable e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future.thenApply(result -> (O) result);
+    }
+
+    /**
+     * @return long The amount of calls that were executed.
+     */
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * @return long The amount of calls that shared the result of an identical call in flight.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return int The amount of calls in flight.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,80 @@
+package io.polyapi.commons.api.service;
+
+import io.polyapi.commons.api.error.http.HttpResponseException;
+import io.polyapi.commons.api.http.HttpMethod;
+import io.polyapi.commons.api.http.Request;
+import io.polyapi.commons.api.http.Response;
+import io.polyapi.commons.api.metrics.PolyMetrics;
+import io.polyapi.commons.api.metrics.RequestMetrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * Measures the phases of a single request and reports them to {@link PolyMetrics} when it finishes. It only takes
+ * timestamps and reads sizes that are already known, so it doesn't add work to the request.
+ */
+class RequestSample {
+    private final PolyMetrics metrics;
+    private final String operation;
+    private final HttpMethod method;
+    private final long start;
+    private long serialized;
+    private long received;
+    private long requestBytes;
+    private long responseBytes = -1;
+    private int statusCode;
+
+    RequestSample(PolyMetrics metrics, String operation, HttpMethod method) {
+        this.metrics = metrics;
+        this.operation = operation;
+        this.method = method;
+        this.start = System.nanoTime();
+        metrics.requestStarted(operation);
+    }
+
+    Request serialized(Request request) {
+        this.serialized = System.nanoTime();
+        this.requestBytes = size(request.body());
+        return request;
+    }
+
+    Response received(Response response) {
+        this.received = System.nanoTime();
+        this.statusCode = response.statusCode();
+        this.responseBytes = size(response.body());
+        if (responseBytes < 0) {
+            responseBytes = response.headers().entrySet().stream()
+                    .filter(header -> header.getKey() != null && header.getKey().equalsIgnoreCase("Content-Length"))
+                    .flatMap(header -> header.getValue().stream())
+                    .findFirst()
+                    .map(Long::valueOf)
+                    .orElse(-1L);
+        }
+        return response;
+    }
+
+    void succeeded() {
+        finish(null);
+    }
+
+    void failed(Throwable error) {
+        if (received == 0 && error instanceof HttpResponseException httpError) {
+            this.received = System.nanoTime();
+            this.statusCode = httpError.getStatusCode();
+        }
+        finish(error);
+    }
+
+    private void finish(Throwable error) {
+        long end = System.nanoTime();
+        long serializedAt = serialized == 0 ? end : serialized;
+        long receivedAt = received == 0 ? end : received;
+        metrics.recordRequest(new RequestMetrics(operation, method, statusCode, requestBytes, responseBytes,
+                serializedAt - start, receivedAt - serializedAt, end - receivedAt, error));
+    }
+
+    private static long size(InputStream body) {
+        return body instanceof ByteArrayInputStream buffered ? buffered.available() : -1;
+    }
+}
@@ -51,4 +51,22 @@ public interface WebSocketClient extends AutoCloseable {
     void registerErrorHandlerAndWait(String path, Consumer<PolyErrorEvent> listener);
 
     <T> Handle registerAuthFunctionEventHandler(String id, PolyEventConsumer<T> trigger);
+
+    /**
+     * Registers a listener for the changes of a server variable. Several listeners can be registered for the same
+     * variable, and closing the returned handle only removes its own listener.
+     *
+     * @param variableId The ID of the variable.
+     * @param eventType  The type of the change events, so that a proper casting can be done.
+     * @param listener   The {@link Consumer} of the change events.
+     * @param <T>        The type of the change events.
+     * @return Handle The handle that allows for removal of the listener.
+     */
+    <T> Handle registerVariableChangeEventHandler(String variableId, Type eventType, Consumer<T> listener);
+
+    /**
+     * Disconnects from the server, if connected.
+     */
+    @Override
+    void close();
 }
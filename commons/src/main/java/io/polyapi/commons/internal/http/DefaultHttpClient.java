@@ -1,5 +1,6 @@
 package io.polyapi.commons.internal.http;
 
+import io.polyapi.commons.api.error.DeadlineExceededException;
 import io.polyapi.commons.api.error.PolyApiException;
 import io.polyapi.commons.api.http.HttpClient;
 import io.polyapi.commons.api.http.HttpMethod;
@@ -9,25 +10,49 @@ import io.polyapi.commons.api.http.Response;
 import io.polyapi.commons.api.http.ResponseRecord;
 import io.polyapi.commons.api.http.TokenProvider;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Authenticator;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
 import org.apache.commons.io.IOUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
 
 import static java.lang.String.format;
 import static java.lang.String.join;
 import static java.nio.charset.Charset.defaultCharset;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.Collectors.joining;
+import static okhttp3.Protocol.HTTP_1_1;
+import static okhttp3.Protocol.HTTP_2;
 
 @Slf4j
 public class DefaultHttpClient implements HttpClient {
 
     private final OkHttpClient client;
     private final HttpClientConfiguration configuration;
+    private final boolean ownedClient;
+    private final RateLimiter rateLimiter;
+    private final UrlFactory urlFactory = new UrlFactory();
 
     /**
      * Utility constructor that sets a default {@link OkHttpClient} and uses a {@link TokenProvider}.
@@ -35,16 +60,69 @@ public class DefaultHttpClient implements HttpClient {
      * @param configuration The configuration for the HTTP client.
      */
     public DefaultHttpClient(HttpClientConfiguration configuration) {
-        this(new OkHttpClient.Builder()
-                .connectTimeout(configuration.getConnectTimeoutMillis(), MILLISECONDS)
-                .readTimeout(configuration.getReadTimeoutMillis(), MILLISECONDS)
-                .writeTimeout(configuration.getWriteTimeoutMillis(), MILLISECONDS)
-                .build(), configuration);
+        this(createClient(configuration), configuration, true);
     }
 
     public DefaultHttpClient(OkHttpClient client, HttpClientConfiguration configuration) {
-        this.client = client;
+        this(client, configuration, false);
+    }
+
+    private DefaultHttpClient(OkHttpClient client, HttpClientConfiguration configuration, boolean ownedClient) {
         this.configuration = configuration;
+        this.ownedClient = ownedClient;
+        this.rateLimiter = new RateLimiter(configuration.getRateLimit(), configuration.getRateLimitBurst(), configuration.getKeyRateLimits(), System::nanoTime);
+        // The interceptors are added to clients passed as parameter too, so that they follow the configuration as well.
+        // The derived client shares the connection pool and dispatcher of the original one.
+        var builder = client.newBuilder()
+                // Requests with their own timeout are only limited by it, so that the timeouts of the client don't cut them short.
+                .addInterceptor(chain -> {
+                    int callTimeoutMillis = (int) NANOSECONDS.toMillis(chain.call().timeout().timeoutNanos());
+                    return callTimeoutMillis > 0
+                            ? chain.withReadTimeout(callTimeoutMillis, MILLISECONDS).withWriteTimeout(callTimeoutMillis, MILLISECONDS).proceed(chain.request())
+                            : chain.proceed(chain.request());
+                });
+        if (configuration.getRetryPolicy().isEnabled()) {
+            builder.addInterceptor(new RetryInterceptor(configuration.getRetryPolicy(), configuration.getMetrics()));
+        }
+        // Clients passed as parameter keep their own authenticator, if they have one.
+        if (client.authenticator() == Authenticator.NONE) {
+            builder.authenticator(new TokenRenewalAuthenticator(configuration.getTokenProvider()));
+        }
+        // Added after the retry interceptor, so that every attempt goes through the rate limiter.
+        this.client = builder.addInterceptor(new RateLimitInterceptor(rateLimiter)).build();
+    }
+
+    private static OkHttpClient createClient(HttpClientConfiguration configuration) {
+        var dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(configuration.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(configuration.getMaxRequestsPerHost());
+        var builder = new OkHttpClient.Builder()
+                .connectTimeout(configuration.getConnectTimeoutMillis(), MILLISECONDS)
+                .readTimeout(configuration.getReadTimeoutMillis(), MILLISECONDS)
+                .writeTimeout(configuration.getWriteTimeoutMillis(), MILLISECONDS)
+                .connectionPool(new ConnectionPool(configuration.getMaxIdleConnections(), configuration.getKeepAliveMillis(), MILLISECONDS))
+                .dispatcher(dispatcher)
+                .protocols(configuration.getHttp2Enabled() ? List.of(HTTP_2, HTTP_1_1) : List.of(HTTP_1_1));
+        if (configuration.getTlsSessionCacheSize() != null || configuration.getTlsSessionTimeoutSeconds() != null) {
+            try {
+                log.debug("Configuring TLS session cache.");
+                var trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+                trustManagerFactory.init((KeyStore) null);
+                var trustManager = Arrays.stream(trustManagerFactory.getTrustManagers())
+                        .filter(X509TrustManager.class::isInstance)
+                        .map(X509TrustManager.class::cast)
+                        .findFirst()
+                        .orElseThrow(() -> new PolyApiException("No X509 trust manager available."));
+                var sslContext = SSLContext.getInstance("TLS");
+                sslContext.init(null, new TrustManager[]{trustManager}, null);
+                Optional.ofNullable(configuration.getTlsSessionCacheSize()).ifPresent(sslContext.getClientSessionContext()::setSessionCacheSize);
+                Optional.ofNullable(configuration.getTlsSessionTimeoutSeconds()).ifPresent(sslContext.getClientSessionContext()::setSessionTimeout);
+                builder.sslSocketFactory(sslContext.getSocketFactory(), trustManager);
+            } catch (GeneralSecurityException e) {
+                throw new PolyApiException(e);
+            }
+        }
+        return builder.build();
     }
 
     @Override
@@ -61,15 +139,147 @@ public class DefaultHttpClient implements HttpClient {
 
     @Override
     public Response send(Request request) {
+        UUID requestId = UUID.randomUUID();
+        try {
+            var okHttpRequest = toOkHttpRequest(requestId, request);
+            long wait = rateLimiter.reserve(okHttpRequest.url().pathSegments());
+            if (wait > 0) {
+                log.debug("Rate limit reached. Request with ID {} waits {}ms.", requestId, NANOSECONDS.toMillis(wait));
+                NANOSECONDS.sleep(wait);
+            }
+            return toResponse(requestId, newCall(okHttpRequest, request.timeoutMillis(), wait).execute());
+        } catch (InterruptedIOException e) {
+            if (request.timeoutMillis() != null) {
+                throw new DeadlineExceededException(format("Request with ID %s didn't finish within its timeout of %dms.", requestId, request.timeoutMillis()), e);
+            }
+            throw transportException(requestId, e);
+        } catch (IOException e) {
+            throw transportException(requestId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PolyApiException(e);
+        }
+    }
+
+    /**
+     * Sends a request without blocking. If the rate limit is reached, the request is sent when its turn arrives and
+     * no thread waits for it in the meantime.
+     */
+    @Override
+    public CompletableFuture<Response> sendAsync(Request request) {
+        UUID requestId = UUID.randomUUID();
+        var okHttpRequest = toOkHttpRequest(requestId, request);
+        long wait = rateLimiter.reserve(okHttpRequest.url().pathSegments());
+        if (wait <= 0) {
+            return enqueue(requestId, newCall(okHttpRequest, request.timeoutMillis(), 0));
+        }
+        log.debug("Rate limit reached. Request with ID {} is delayed {}ms.", requestId, NANOSECONDS.toMillis(wait));
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(wait, NANOSECONDS).execute(() -> {
+            if (result.isDone()) {
+                log.debug("Request with ID {} cancelled while waiting for the rate limit.", requestId);
+                return;
+            }
+            var call = enqueue(requestId, newCall(okHttpRequest, request.timeoutMillis(), wait));
+            call.whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else if (!result.complete(response)) {
+                    try {
+                        response.body().close();
+                    } catch (IOException e) {
+                        log.debug("Failed to close discarded response to request with ID {}.", requestId, e);
+                    }
+                }
+            });
+            result.whenComplete((response, throwable) -> {
+                if (result.isCancelled()) {
+                    call.cancel(true);
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Creates the call of a request. If the request has its own timeout, the call is limited to it, minus the time it
+     * already waited for the rate limit.
+     */
+    private Call newCall(okhttp3.Request okHttpRequest, Long timeoutMillis, long waitedNanos) {
+        Call call = client.newCall(okHttpRequest);
+        if (timeoutMillis != null) {
+            call.timeout().timeout(Math.max(1, timeoutMillis - NANOSECONDS.toMillis(waitedNanos)), MILLISECONDS);
+        }
+        return call;
+    }
+
+    private CompletableFuture<Response> enqueue(UUID requestId, Call call) {
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                log.debug("Request with ID {} cancelled.", requestId);
+                call.cancel();
+            }
+        });
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                log.debug("Request with ID {} failed.", requestId, e);
+                if (e instanceof InterruptedIOException && call.timeout().timeoutNanos() > 0) {
+                    result.completeExceptionally(new DeadlineExceededException(format("Request with ID %s didn't finish within its timeout of %dms.", requestId, NANOSECONDS.toMillis(call.timeout().timeoutNanos())), e));
+                    return;
+                }
+                result.completeExceptionally(transportException(requestId, e));
+            }
+
+            @Override
+            public void onResponse(Call call, okhttp3.Response response) {
+                try {
+                    Response polyResponse = toResponse(requestId, response);
+                    if (!result.complete(polyResponse)) {
+                        log.debug("Request with ID {} was already completed. Discarding response.", requestId);
+                        polyResponse.body().close();
+                    }
+                } catch (IOException e) {
+                    result.completeExceptionally(transportException(requestId, e));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Wraps the errors of the transport, so that the blocking and asynchronous calls fail the same way.
+     */
+    private static PolyApiException transportException(UUID requestId, IOException e) {
+        return new PolyApiException(format("Request with ID %s failed.", requestId), e);
+    }
+
+    /**
+     * Shuts down the dispatcher threads and evicts the pooled connections. If the {@link OkHttpClient} was provided
+     * externally, it is left untouched as it may be shared.
+     */
+    @Override
+    public void close() {
+        if (ownedClient) {
+            log.debug("Shutting down HTTP client.");
+            client.dispatcher().executorService().shutdown();
+            client.connectionPool().evictAll();
+        }
+    }
+
+    private okhttp3.Request toOkHttpRequest(UUID requestId, Request request) {
         try {
-            UUID requestId = UUID.randomUUID();
             log.debug("Sending request. Request identified as {}.", requestId);
             if (log.isTraceEnabled()) {
 
                 // Adding logging trace values.
                 log.warn("Trace logging enabled. Request specific confidential information such as secret keys and tokens may be revealed.");
-                var stringBody = IOUtils.toString(request.body(), defaultCharset());
-                request = new RequestRecord(request.host(), request.relativePath(), request.port(), request.queryParams(), request.method(), request.headers(), new ByteArrayInputStream(stringBody.getBytes(defaultCharset())));
+                var bytes = request.body() == null ? new byte[]{} : IOUtils.toByteArray(request.body());
+                var stringBody = new String(bytes, UTF_8);
+                request = new RequestRecord(request.host(), request.relativePath(), request.port(), request.queryParams(), request.method(), request.headers(), new ByteArrayInputStream(bytes), request.timeoutMillis());
                 log.trace("Request with ID {} contents:\n{\n'url':'{}';\n'headers': {\n{}\n};\n'method': '{}';\n'body':{}",
                         requestId,
                         request.getUrl(),
@@ -81,33 +291,63 @@ public class DefaultHttpClient implements HttpClient {
                 );
             }
             okhttp3.Request.Builder builder = new okhttp3.Request.Builder()
-                    .url(request.getUrl())
-                    .method(request.method().name(), request.body().available() > 0 ? RequestBody.create(IOUtils.toString(request.body(), defaultCharset()).getBytes(defaultCharset())) : null);
+                    .url(urlFactory.toHttpUrl(request))
+                    .method(request.method().name(), toRequestBody(request.body()))
+                    .tag(RateLimitInterceptor.Reservation.class, new RateLimitInterceptor.Reservation());
 
             // This block of code is created because the Headers class doesn't have a way of including the headers all together.
             request.headers().forEach((key, list) -> list.forEach(value -> builder.header(key, value)));
-            try (okhttp3.Response response = client.newCall(builder.build()).execute()) {
-                log.debug("Request with ID {} complete. Status code is {}", requestId, response.code());
-                var result = new ResponseRecord(response.headers().toMultimap(), new ByteArrayInputStream(response.body().bytes()), response.code());
-                if (log.isTraceEnabled()) {
-                    log.trace("Response to request with ID {} contents:\n{\n    'status':{};\n    headers': {\n{}\n};\n    'body':{}",
-                            requestId,
-                            result.statusCode(),
-                            result.headers().entrySet().stream()
-                                    .map(entry -> format("'%s'='%s'", entry.getKey(), join(", ", entry.getValue())))
-                                    .collect(joining(";")),
-                            IOUtils.toString(result.body(), defaultCharset())
-                    );
-                    result.body().reset();
-                }
-                return (response.code() < 200 || response.code() > 299) ? configuration.getErrorHandlingStrategy().apply(result) : result;
-            } catch (IOException e) {
-                // FIXME: Throw the appropriate exception.
-                throw new RuntimeException(e);
-            }
+            return builder.build();
         } catch (IOException e) {
-            // FIXME: Throw the appropriate exception.
-            throw new PolyApiException(e);
+            throw new PolyApiException(format("Failed to read the body of request with ID %s.", requestId), e);
+        }
+    }
+
+    /**
+     * Wraps the body of the request so that it is streamed into the connection. Bodies that are known to be empty are
+     * ignored.
+     *
+     * @param body The body of the request.
+     * @return RequestBody The streaming body, or null if there's no content to send.
+     */
+    private RequestBody toRequestBody(InputStream body) throws IOException {
+        if (body == null) {
+            return null;
+        }
+        long contentLength = body instanceof ByteArrayInputStream ? body.available() : -1;
+        return contentLength == 0 ? null : new InputStreamRequestBody(body, contentLength);
+    }
+
+    /**
+     * Converts the OkHttp response into a {@link Response}. If streaming responses are enabled and the response is
+     * successful, the body is bound to the live connection and it is the responsibility of the consumer to close it.
+     * Otherwise, the body is fully read into memory and the OkHttp response is closed.
+     *
+     * @param requestId The ID of the request, for logging purposes.
+     * @param response  The OkHttp response.
+     * @return Response The converted response.
+     */
+    private Response toResponse(UUID requestId, okhttp3.Response response) throws IOException {
+        log.debug("Request with ID {} complete. Status code is {}", requestId, response.code());
+        var headers = response.headers().toMultimap();
+        if (configuration.getStreamingResponses() && response.isSuccessful()) {
+            log.debug("Streaming body of response to request with ID {}.", requestId);
+            return new ResponseRecord(headers, new ResponseBodyInputStream(response), response.code());
+        }
+        try (response) {
+            var result = new ResponseRecord(headers, new ByteArrayInputStream(response.body().bytes()), response.code());
+            if (log.isTraceEnabled()) {
+                log.trace("Response to request with ID {} contents:\n{\n    'status':{};\n    headers': {\n{}\n};\n    'body':{}",
+                        requestId,
+                        result.statusCode(),
+                        result.headers().entrySet().stream()
+                                .map(entry -> format("'%s'='%s'", entry.getKey(), join(", ", entry.getValue())))
+                                .collect(joining(";")),
+                        IOUtils.toString(result.body(), defaultCharset())
+                );
+                result.body().reset();
+            }
+            return response.isSuccessful() ? result : configuration.getErrorHandlingStrategy().apply(result);
         }
     }
 }
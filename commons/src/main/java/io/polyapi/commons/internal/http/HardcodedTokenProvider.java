@@ -2,15 +2,24 @@ package io.polyapi.commons.internal.http;
 
 import io.polyapi.commons.api.http.TokenProvider;
 
+import static java.lang.String.format;
+
 /**
  * {@link TokenProvider} that always return the same set token.
  */
 public class HardcodedTokenProvider implements TokenProvider {
 
   private final String token;
+  private final String header;
 
   public HardcodedTokenProvider(String token) {
     this.token = token;
+    this.header = format("Bearer %s", token);
+  }
+
+  @Override
+  public String getTokenAsHeader() {
+    return header;
   }
 
   @Override
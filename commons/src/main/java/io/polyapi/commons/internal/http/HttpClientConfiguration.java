@@ -15,21 +15,39 @@ import io.polyapi.commons.api.error.http.UnexpectedHttpResponseException;
 import io.polyapi.commons.api.error.http.UnexpectedInformationalResponseException;
 import io.polyapi.commons.api.http.Response;
 import io.polyapi.commons.api.http.TokenProvider;
-import lombok.AllArgsConstructor;
+import io.polyapi.commons.api.metrics.PolyMetrics;
 import lombok.Getter;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Getter
-@AllArgsConstructor
 public class HttpClientConfiguration {
     public static final Long DEFAULT_TIMEOUT_MILLIS = 600000L;
+    public static final Integer DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    public static final Long DEFAULT_KEEP_ALIVE_MILLIS = 300000L;
+    public static final Integer DEFAULT_MAX_REQUESTS = 64;
+    public static final Integer DEFAULT_MAX_REQUESTS_PER_HOST = 5;
     private final TokenProvider tokenProvider;
-    private Long connectTimeoutMillis;
-    private Long readTimeoutMillis;
-    private Long writeTimeoutMillis;
-    private Function<Response, Response> errorHandlingStrategy;
+    private Long connectTimeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private Long readTimeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private Long writeTimeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private Function<Response, Response> errorHandlingStrategy = HttpClientConfiguration::throwHttpResponseException;
+    private Boolean streamingResponses = false;
+    private Integer maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+    private Long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+    private Integer maxRequests = DEFAULT_MAX_REQUESTS;
+    private Integer maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
+    private Boolean http2Enabled = true;
+    private Integer tlsSessionCacheSize;
+    private Integer tlsSessionTimeoutSeconds;
+    private RetryPolicy retryPolicy = RetryPolicy.disabled();
+    private PolyMetrics metrics = PolyMetrics.NOOP;
+    private Double rateLimit;
+    private Integer rateLimitBurst;
+    private Map<String, Double> keyRateLimits = new HashMap<>();
 
     public HttpClientConfiguration(String hardcodedApiKey) {
         this(new HardcodedTokenProvider(hardcodedApiKey));
@@ -47,29 +65,37 @@ public class HttpClientConfiguration {
         return new HttpClientConfigurationBuilder(tokenProvider);
     }
 
+    /**
+     * Default error handling strategy. Throws the {@link HttpResponseException} that matches the status code of the response.
+     *
+     * @param response The unsuccessful response.
+     * @return Response This method never returns normally.
+     */
+    private static Response throwHttpResponseException(Response response) {
+        if (response.statusCode() < 200) {
+            throw new UnexpectedInformationalResponseException(response);
+        }
+        Function<Response, HttpResponseException> exceptionConstructor = switch (response.statusCode()) {
+            case 400 -> BadRequestException::new;
+            case 401 -> UnauthorizedException::new;
+            case 403 -> ForbiddenException::new;
+            case 404 -> NotFoundException::new;
+            case 405 -> MethodNotAllowedException::new;
+            case 406 -> NotAcceptableException::new;
+            case 408 -> RequestTimeoutException::new;
+            case 418 -> ImATeapotException::new;
+            case 500 -> InternalServerErrorException::new;
+            case 503 -> ServiceUnavailableException::new;
+            default -> UnexpectedHttpResponseException::new;
+        };
+        throw exceptionConstructor.apply(response);
+    }
+
     public static class HttpClientConfigurationBuilder {
         private HttpClientConfiguration configuration;
 
         private HttpClientConfigurationBuilder(TokenProvider tokenProvider) {
-            this.configuration = new HttpClientConfiguration(tokenProvider, DEFAULT_TIMEOUT_MILLIS, DEFAULT_TIMEOUT_MILLIS, DEFAULT_TIMEOUT_MILLIS, response -> {
-                if (response.statusCode() < 200) {
-                    throw new UnexpectedInformationalResponseException(response);
-                }
-                Function<Response, HttpResponseException> exceptionConstructor = switch (response.statusCode()) {
-                    case 400 -> BadRequestException::new;
-                    case 401 -> UnauthorizedException::new;
-                    case 403 -> ForbiddenException::new;
-                    case 404 -> NotFoundException::new;
-                    case 405 -> MethodNotAllowedException::new;
-                    case 406 -> NotAcceptableException::new;
-                    case 408 -> RequestTimeoutException::new;
-                    case 418 -> ImATeapotException::new;
-                    case 500 -> InternalServerErrorException::new;
-                    case 503 -> ServiceUnavailableException::new;
-                    default -> UnexpectedHttpResponseException::new;
-                };
-                throw exceptionConstructor.apply(response);
-            });
+            this.configuration = new HttpClientConfiguration(tokenProvider);
         }
 
         /**
@@ -145,6 +171,147 @@ public class HttpClientConfiguration {
             return this;
         }
 
+        /**
+         * Sets whether the bodies of successful responses are streamed from the connection instead of being loaded into
+         * memory. When enabled, the consumer of the {@link Response} is responsible for closing its body.
+         *
+         * @param streamingResponses Flag indicating if the responses should be streamed. By default, false.
+         */
+        public HttpClientConfigurationBuilder withStreamingResponses(Boolean streamingResponses) {
+            this.configuration.streamingResponses = streamingResponses;
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of idle connections kept in the connection pool for reuse.
+         *
+         * @param maxIdleConnections The maximum amount of idle connections. By default, 5.
+         */
+        public HttpClientConfigurationBuilder withMaxIdleConnections(Integer maxIdleConnections) {
+            this.configuration.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * Sets the time that an idle connection is kept alive in the pool before being evicted.
+         *
+         * @param millis The amount of milliseconds that an idle connection is kept alive. By default, 5 minutes.
+         */
+        public HttpClientConfigurationBuilder withKeepAliveMillis(Long millis) {
+            this.configuration.keepAliveMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets the time that an idle connection is kept alive in the pool before being evicted.
+         *
+         * @param amount   The amount of time units that an idle connection is kept alive.
+         * @param timeUnit The {@link TimeUnit} of the keep alive duration to set.
+         */
+        public HttpClientConfigurationBuilder withKeepAlive(int amount, TimeUnit timeUnit) {
+            this.configuration.keepAliveMillis = timeUnit.toMillis(amount);
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of asynchronous requests executed concurrently. Requests above this limit are queued.
+         *
+         * @param maxRequests The maximum amount of concurrent requests. By default, 64.
+         */
+        public HttpClientConfigurationBuilder withMaxRequests(Integer maxRequests) {
+            this.configuration.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of asynchronous requests executed concurrently against a single host. Requests above
+         * this limit are queued.
+         *
+         * @param maxRequestsPerHost The maximum amount of concurrent requests per host. By default, 5.
+         */
+        public HttpClientConfigurationBuilder withMaxRequestsPerHost(Integer maxRequestsPerHost) {
+            this.configuration.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * Sets whether HTTP/2 is preferred when the server supports it. When disabled, only HTTP/1.1 is used.
+         *
+         * @param http2Enabled Flag indicating if HTTP/2 is negotiated. By default, true.
+         */
+        public HttpClientConfigurationBuilder withHttp2Enabled(Boolean http2Enabled) {
+            this.configuration.http2Enabled = http2Enabled;
+            return this;
+        }
+
+        /**
+         * Sets the size of the cache of TLS sessions used for session resumption, which avoids full handshakes when
+         * new connections to the same host are opened.
+         *
+         * @param size The maximum amount of cached sessions. If not set, the JVM default is used.
+         */
+        public HttpClientConfigurationBuilder withTlsSessionCacheSize(Integer size) {
+            this.configuration.tlsSessionCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Sets the time that a TLS session is kept in the cache to be resumed.
+         *
+         * @param seconds The amount of seconds that a session can be resumed. If not set, the JVM default is used.
+         */
+        public HttpClientConfigurationBuilder withTlsSessionTimeoutSeconds(Integer seconds) {
+            this.configuration.tlsSessionTimeoutSeconds = seconds;
+            return this;
+        }
+
+        /**
+         * Sets the policy for retrying requests that fail because of transient errors.
+         *
+         * @param retryPolicy The retry policy. By default, requests are not retried.
+         */
+        public HttpClientConfigurationBuilder withRetryPolicy(RetryPolicy retryPolicy) {
+            this.configuration.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the receiver of the metrics recorded by the client, such as the retries.
+         *
+         * @param metrics The metrics receiver. By default, nothing is recorded.
+         */
+        public HttpClientConfigurationBuilder withMetrics(PolyMetrics metrics) {
+            this.configuration.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sets the rate of requests sent by the client. When the rate is reached, {@link io.polyapi.commons.api.http.HttpClient#send}
+         * blocks and {@link io.polyapi.commons.api.http.HttpClient#sendAsync} delays the request without blocking. The
+         * rate is reduced automatically when the server answers with 429 and recovers gradually afterward.
+         *
+         * @param permitsPerSecond The maximum amount of requests per second. If not set, requests are only delayed
+         *                         when the server asks for it through 'Retry-After' or rate limit headers.
+         * @param burst            The maximum amount of requests sent at once after a period of inactivity. By default, 1.
+         */
+        public HttpClientConfigurationBuilder withRateLimit(Double permitsPerSecond, Integer burst) {
+            this.configuration.rateLimit = permitsPerSecond;
+            this.configuration.rateLimitBurst = burst;
+            return this;
+        }
+
+        /**
+         * Sets the rate of the requests whose path contains a key, such as the ID of a function. These requests are
+         * also limited by the global rate.
+         *
+         * @param key              The segment of the path that identifies the requests.
+         * @param permitsPerSecond The maximum amount of requests per second.
+         */
+        public HttpClientConfigurationBuilder withRateLimit(String key, Double permitsPerSecond) {
+            this.configuration.keyRateLimits.put(key, permitsPerSecond);
+            return this;
+        }
+
         public HttpClientConfiguration build() {
             return configuration;
         }
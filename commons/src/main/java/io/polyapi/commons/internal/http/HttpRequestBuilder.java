@@ -8,77 +8,116 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.BiConsumer;
 
-import static java.nio.charset.Charset.defaultCharset;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Utility class for the creation of {@link Request}s.
+ * <p>
+ * The builder is mutable: every method adds to the same request and returns the builder itself, so that building a
+ * request only creates the {@link Request} once. The values are copied into the builder, so later changes to the maps
+ * passed as parameters don't affect the request. A builder is meant to build a single request, as the maps of the
+ * built request are shared with it.
  */
 public class HttpRequestBuilder {
-  private final Request request;
-
-  private HttpRequestBuilder(Request request) {
-    this.request = request;
-  }
-
-  private HttpRequestBuilder(HttpRequestBuilder builder, String relativePath, Map<String, List<String>> queryParams, Map<String, List<String>> headers, InputStream body) {
-    this(new RequestRecord(builder.request.host(), relativePath, builder.request.port(), queryParams, builder.request.method(), headers, body));
-  }
+  private final String host;
+  private final Integer port;
+  private final HttpMethod method;
+  private final String relativePath;
+  private final Map<String, List<String>> headers = new HashMap<>();
+  private final Map<String, List<String>> queryParams = new LinkedHashMap<>();
+  private InputStream body;
+  private Long timeoutMillis;
 
   public HttpRequestBuilder(String host, Integer port, HttpMethod method, String relativePath) {
-    this(new RequestRecord(host, relativePath, port, new HashMap<>(), method, new HashMap<>(), null));
+    this.host = host;
+    this.port = port;
+    this.method = method;
+    this.relativePath = relativePath;
   }
 
 
   public HttpRequestBuilder withHeader(String name, String value) {
-    return withHeaders(Map.of(name, List.of(value)));
+    headers.computeIfAbsent(name, key -> new ArrayList<>(1)).add(value);
+    return this;
   }
 
   public HttpRequestBuilder withHeaders(Map<String, List<String>> headers) {
-    return new HttpRequestBuilder(this, request.relativePath(), request.queryParams(), merge(request.headers(), headers), request.body());
+    merge(this.headers, headers);
+    return this;
+  }
+
+  /**
+   * Marks the request as idempotent so that it can be retried even if its method isn't safe. The server is expected to
+   * use the key to execute the request only once.
+   *
+   * @param key The idempotency key of the request.
+   * @return HttpRequestBuilder The builder of the marked request.
+   */
+  public HttpRequestBuilder withIdempotencyKey(String key) {
+    return withHeader(RetryInterceptor.IDEMPOTENCY_KEY_HEADER, key);
   }
 
+  /**
+   * Adds a value to a query parameter. The clients percent-encode the value when composing the URL: spaces, '&', '#'
+   * and non-ASCII characters are encoded as UTF-8, while valid escapes such as '%20' are sent as they are.
+   *
+   * @param name  The name of the parameter.
+   * @param value The value, either plain or already percent-encoded.
+   * @return HttpRequestBuilder The builder of the request with the parameter.
+   */
   public HttpRequestBuilder withQueryParam(String name, String value) {
-    return withQueryParams(Map.of(name, List.of(value)));
+    queryParams.computeIfAbsent(name, key -> new ArrayList<>(1)).add(value);
+    return this;
   }
 
   public HttpRequestBuilder withQueryParams(Map<String, List<String>> queryParams) {
-    return new HttpRequestBuilder(this, request.relativePath(), merge(request.queryParams(), queryParams), request.headers(), request.body());
+    merge(this.queryParams, queryParams);
+    return this;
   }
 
+  /**
+   * Sets the body of the request. It is encoded as UTF-8 regardless of the platform charset.
+   *
+   * @param body The body of the request.
+   * @return HttpRequestBuilder The builder of the request with the body.
+   */
   public HttpRequestBuilder withBody(String body) {
-    return withBody(new ByteArrayInputStream(body.getBytes(defaultCharset())));
+    return withBody(new ByteArrayInputStream(body.getBytes(UTF_8)));
   }
 
   public HttpRequestBuilder withBody(InputStream body) {
-    return new HttpRequestBuilder(this, request.relativePath(), request.queryParams(), request.headers(), body);
+    this.body = body;
+    return this;
+  }
+
+  /**
+   * Limits the time that the whole request may take, retries and waits included.
+   *
+   * @param timeoutMillis The timeout in milliseconds. Null to only apply the timeouts of the client.
+   * @return HttpRequestBuilder The builder of the limited request.
+   */
+  public HttpRequestBuilder withTimeoutMillis(Long timeoutMillis) {
+    this.timeoutMillis = timeoutMillis;
+    return this;
   }
 
   public Request build() {
-    return request;
+    return new RequestRecord(host, relativePath, port, queryParams, method, headers, body, timeoutMillis);
   }
 
   /**
-   * Inner method that creates a new {@link Map}{@literal <}{@link String}/{@link List}{@literal <}{@link String}{@literal >}{@literal >} from 2 different instances.
-   * Merges the lists in the values. This is made in a new instance to avoid changes in any of the parameters to affect the result.
+   * Inner method that adds the entries of a {@link Map}{@literal <}{@link String}/{@link List}{@literal <}{@link String}{@literal >}{@literal >}
+   * into the ones of the builder. Merges the lists in the values, copying them so that changes in the parameter don't
+   * affect the request.
    *
-   * @param map1 The first map to be added into the result.
-   * @param map2 The second map to be added into the result.
-   * @return {@link Map} The new merged map.
+   * @param target The map of the builder.
+   * @param source The map to be added into the target.
    */
-  private Map<String, List<String>> merge(Map<String, List<String>> map1, Map<String, List<String>> map2) {
-    Map<String, List<String>> result = new HashMap<>();
-    BiConsumer<String, List<String>> merger = (key, list) -> {
-      if (!result.containsKey(key)) {
-        result.put(key, new ArrayList<>());
-      }
-      result.get(key).addAll(list);
-    };
-    map1.forEach(merger);
-    map2.forEach(merger);
-    return result;
+  private void merge(Map<String, List<String>> target, Map<String, List<String>> source) {
+    source.forEach((key, list) -> target.computeIfAbsent(key, name -> new ArrayList<>(list.size())).addAll(list));
   }
 }
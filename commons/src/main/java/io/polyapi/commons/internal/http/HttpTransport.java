@@ -0,0 +1,31 @@
+package io.polyapi.commons.internal.http;
+
+import io.polyapi.commons.api.http.HttpClient;
+
+import java.util.function.Function;
+
+/**
+ * Implementations of the {@link HttpClient} that can be selected to connect to the PolyAPI service.
+ */
+public enum HttpTransport {
+
+    /**
+     * {@link DefaultHttpClient}, backed by OkHttp.
+     */
+    OKHTTP(DefaultHttpClient::new),
+
+    /**
+     * {@link JdkHttpClient}, backed by the HTTP client of the JDK.
+     */
+    JDK(JdkHttpClient::new);
+
+    private final Function<HttpClientConfiguration, HttpClient> factory;
+
+    HttpTransport(Function<HttpClientConfiguration, HttpClient> factory) {
+        this.factory = factory;
+    }
+
+    public HttpClient createClient(HttpClientConfiguration configuration) {
+        return factory.apply(configuration);
+    }
+}
@@ -0,0 +1,63 @@
+package io.polyapi.commons.internal.http;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link RequestBody} that pipes an {@link InputStream} directly into the OkHttp {@link BufferedSink} without
+ * converting it to an intermediate {@link String} or byte array.
+ * If the stream supports marking, the body is replayable so that OkHttp can resend it on connection failures.
+ * Otherwise, it is consumed only once.
+ */
+class InputStreamRequestBody extends RequestBody {
+    private final InputStream body;
+    private final long contentLength;
+
+    /**
+     * Creates a streaming body.
+     *
+     * @param body          The stream with the contents of the body.
+     * @param contentLength The amount of bytes of the body, or -1 if unknown.
+     */
+    InputStreamRequestBody(InputStream body, long contentLength) {
+        this.body = body;
+        this.contentLength = contentLength;
+        if (body.markSupported()) {
+            body.mark(Integer.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public MediaType contentType() {
+        // The content type is set as a header of the request.
+        return null;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return !body.markSupported();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        if (isOneShot()) {
+            try (Source source = Okio.source(body)) {
+                sink.writeAll(source);
+            }
+        } else {
+            body.reset();
+            sink.writeAll(Okio.source(body));
+        }
+    }
+}
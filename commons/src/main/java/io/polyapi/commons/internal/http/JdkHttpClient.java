@@ -0,0 +1,506 @@
+package io.polyapi.commons.internal.http;
+
+import io.polyapi.commons.api.error.DeadlineExceededException;
+import io.polyapi.commons.api.error.PolyApiException;
+import io.polyapi.commons.api.http.HttpClient;
+import io.polyapi.commons.api.http.HttpMethod;
+import io.polyapi.commons.api.http.Request;
+import io.polyapi.commons.api.http.Response;
+import io.polyapi.commons.api.http.ResponseRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpTimeoutException;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.function.Predicate.not;
+
+/**
+ * {@link HttpClient} backed by the {@link java.net.http.HttpClient} of the JDK. It multiplexes the concurrent requests
+ * to a host over a single HTTP/2 connection, and its I/O runs on a selector thread, so blocking calls made from virtual
+ * threads don't pin a platform thread while they wait.
+ * <p>
+ * It supports the same configuration as {@link DefaultHttpClient}, except for the connection pool and the limits of
+ * concurrent requests, which the JDK client manages on its own. The write timeout doesn't apply either, as the JDK
+ * client only limits the time until the response headers arrive, which is bound to the read timeout.
+ */
+@Slf4j
+public class JdkHttpClient implements HttpClient {
+    // Headers that the JDK client sets on its own and rejects if they are set by the caller.
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+
+    private final java.net.http.HttpClient client;
+    private final HttpClientConfiguration configuration;
+    private final ExecutorService executor;
+    private final RateLimiter rateLimiter;
+    private final RetryBudget retryBudget;
+    private final UrlFactory urlFactory = new UrlFactory();
+
+    public JdkHttpClient(HttpClientConfiguration configuration) {
+        this.configuration = configuration;
+        this.executor = Executors.newCachedThreadPool(new DaemonThreadFactory());
+        var builder = java.net.http.HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(configuration.getConnectTimeoutMillis()))
+                .version(configuration.getHttp2Enabled() ? Version.HTTP_2 : Version.HTTP_1_1)
+                .executor(executor);
+        if (configuration.getTlsSessionCacheSize() != null || configuration.getTlsSessionTimeoutSeconds() != null) {
+            try {
+                log.debug("Configuring TLS session cache.");
+                var sslContext = SSLContext.getInstance("TLS");
+                sslContext.init(null, null, null);
+                Optional.ofNullable(configuration.getTlsSessionCacheSize()).ifPresent(sslContext.getClientSessionContext()::setSessionCacheSize);
+                Optional.ofNullable(configuration.getTlsSessionTimeoutSeconds()).ifPresent(sslContext.getClientSessionContext()::setSessionTimeout);
+                builder.sslContext(sslContext);
+            } catch (GeneralSecurityException e) {
+                throw new PolyApiException(e);
+            }
+        }
+        this.client = builder.build();
+        this.rateLimiter = new RateLimiter(configuration.getRateLimit(), configuration.getRateLimitBurst(), configuration.getKeyRateLimits(), System::nanoTime);
+        this.retryBudget = new RetryBudget(configuration.getRetryPolicy().getBudgetTokens(), configuration.getRetryPolicy().getBudgetTokenRatio());
+    }
+
+    @Override
+    public HttpRequestBuilder prepareRequest(String host, Integer port, HttpMethod method, String relativePath) {
+        return new HttpRequestBuilder(host, port, method, relativePath);
+    }
+
+    @Override
+    public HttpRequestBuilder prepareAuthenticatedRequest(String host, Integer port, HttpMethod method, String relativePath) {
+        return prepareRequest(host, port, method, relativePath)
+                .withHeader(AUTHORIZATION_HEADER, configuration.getTokenProvider().getTokenAsHeader());
+    }
+
+    @Override
+    public Response send(Request request) {
+        var exchange = new Exchange(request);
+        try {
+            long wait = rateLimiter.reserve(exchange.pathSegments());
+            if (wait > 0) {
+                log.debug("Rate limit reached. Request with ID {} waits {}ms.", exchange.requestId, NANOSECONDS.toMillis(wait));
+                NANOSECONDS.sleep(wait);
+            }
+            for (int attempt = 1; ; attempt++) {
+                HttpResponse<InputStream> response = null;
+                IOException failure = null;
+                try {
+                    response = client.send(exchange.attemptRequest(), BodyHandlers.ofInputStream());
+                } catch (IOException e) {
+                    failure = e;
+                }
+                long delay = exchange.retryDelayMillis(attempt, response, failure);
+                if (delay < 0) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    return toResponse(exchange, response);
+                }
+                NANOSECONDS.sleep(exchange.retryWaitNanos(delay, response));
+                discard(response);
+                configuration.getMetrics().recordRetry(exchange.request.relativePath(), attempt + 1);
+            }
+        } catch (HttpTimeoutException e) {
+            throw exchange.timeoutException(e);
+        } catch (IOException e) {
+            throw exchange.transportException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PolyApiException(e);
+        }
+    }
+
+    /**
+     * Sends a request without blocking. The waits for the rate limit and between retries are scheduled on the executor
+     * of the client, so no thread is held in the meantime.
+     */
+    @Override
+    public CompletableFuture<Response> sendAsync(Request request) {
+        var exchange = new Exchange(request);
+        var result = new CompletableFuture<Response>();
+        long wait = rateLimiter.reserve(exchange.pathSegments());
+        if (wait > 0) {
+            log.debug("Rate limit reached. Request with ID {} is delayed {}ms.", exchange.requestId, NANOSECONDS.toMillis(wait));
+            CompletableFuture.delayedExecutor(wait, NANOSECONDS, executor).execute(() -> attemptAsync(exchange, 1, result));
+        } else {
+            attemptAsync(exchange, 1, result);
+        }
+        return result;
+    }
+
+    private void attemptAsync(Exchange exchange, int attempt, CompletableFuture<Response> result) {
+        if (result.isDone()) {
+            log.debug("Request with ID {} cancelled before being sent.", exchange.requestId);
+            return;
+        }
+        CompletableFuture<HttpResponse<InputStream>> call;
+        try {
+            call = client.sendAsync(exchange.attemptRequest(), BodyHandlers.ofInputStream());
+        } catch (HttpTimeoutException e) {
+            result.completeExceptionally(exchange.timeoutException(e));
+            return;
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                log.debug("Request with ID {} cancelled.", exchange.requestId);
+                call.cancel(true);
+            }
+        });
+        call.whenComplete((response, throwable) -> {
+            var error = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (error != null && !(error instanceof IOException)) {
+                result.completeExceptionally(error);
+                return;
+            }
+            long delay = exchange.retryDelayMillis(attempt, response, (IOException) error);
+            if (delay >= 0) {
+                long wait = exchange.retryWaitNanos(delay, response);
+                discard(response);
+                CompletableFuture.delayedExecutor(wait, NANOSECONDS, executor).execute(() -> {
+                    configuration.getMetrics().recordRetry(exchange.request.relativePath(), attempt + 1);
+                    attemptAsync(exchange, attempt + 1, result);
+                });
+            } else if (error instanceof HttpTimeoutException timeoutException) {
+                result.completeExceptionally(exchange.timeoutException(timeoutException));
+            } else if (error != null) {
+                log.debug("Request with ID {} failed.", exchange.requestId, error);
+                result.completeExceptionally(exchange.transportException(error));
+            } else {
+                try {
+                    var polyResponse = toResponse(exchange, response);
+                    if (!result.complete(polyResponse)) {
+                        log.debug("Request with ID {} was already completed. Discarding response.", exchange.requestId);
+                        polyResponse.body().close();
+                    }
+                } catch (HttpTimeoutException e) {
+                    result.completeExceptionally(exchange.timeoutException(e));
+                } catch (IOException e) {
+                    result.completeExceptionally(exchange.transportException(e));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Shuts down the threads of the client. On JVMs where the JDK client can be closed, it also waits for the ongoing
+     * requests and closes the connections.
+     */
+    @Override
+    public void close() {
+        log.debug("Shutting down HTTP client.");
+        if (client instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Failed to close HTTP client.", e);
+            }
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Converts the JDK response into a {@link Response}. The same as in {@link DefaultHttpClient}, successful bodies are
+     * only streamed if streaming responses are enabled, and the rest are read into memory. The JDK client only limits
+     * the time until the response headers arrive, so the body of a request with a timeout is closed when it runs out.
+     */
+    private Response toResponse(Exchange exchange, HttpResponse<InputStream> response) throws IOException {
+        log.debug("Request with ID {} complete. Status code is {}", exchange.requestId, response.statusCode());
+        var headers = toHeaders(response.headers());
+        rateLimiter.onResponse(pathSegments(response.request().uri()), response.statusCode(), headers);
+        boolean successful = response.statusCode() >= 200 && response.statusCode() < 300;
+        InputStream responseBody = exchange.deadlineNanos == 0 ? response.body() : new DeadlineInputStream(response.body(), exchange.deadlineNanos - System.nanoTime(), executor);
+        if (configuration.getStreamingResponses() && successful) {
+            log.debug("Streaming body of response to request with ID {}.", exchange.requestId);
+            return new ResponseRecord(headers, responseBody, response.statusCode());
+        }
+        try (var body = responseBody) {
+            var result = new ResponseRecord(headers, new ByteArrayInputStream(body.readAllBytes()), response.statusCode());
+            return successful ? result : configuration.getErrorHandlingStrategy().apply(result);
+        }
+    }
+
+    /**
+     * Copies the headers with lowercase names into a case-insensitive map, the same as OkHttp does, so that both
+     * transports return the same headers.
+     */
+    private static Map<String, List<String>> toHeaders(HttpHeaders headers) {
+        Map<String, List<String>> result = new TreeMap<>(CASE_INSENSITIVE_ORDER);
+        headers.map().forEach((name, values) -> result.computeIfAbsent(name.toLowerCase(), key -> new ArrayList<>()).addAll(values));
+        return result;
+    }
+
+    private static List<String> pathSegments(URI uri) {
+        return Arrays.stream(Optional.ofNullable(uri.getRawPath()).orElse("").split("/"))
+                .filter(not(String::isEmpty))
+                .toList();
+    }
+
+    private static void discard(HttpResponse<InputStream> response) {
+        if (response != null) {
+            try {
+                response.body().close();
+            } catch (IOException e) {
+                log.debug("Failed to close discarded response.", e);
+            }
+        }
+    }
+
+    /**
+     * Bodies in memory are sent with their length and can be sent again on retries. Other streams are sent chunked and
+     * only once. Bodies that are known to be empty are not sent.
+     */
+    private static BodyPublisher toBodyPublisher(InputStream body) throws IOException {
+        if (body == null) {
+            return BodyPublishers.noBody();
+        }
+        if (body instanceof ByteArrayInputStream) {
+            var bytes = body.readAllBytes();
+            return bytes.length == 0 ? BodyPublishers.noBody() : BodyPublishers.ofByteArray(bytes);
+        }
+        return BodyPublishers.ofInputStream(() -> body);
+    }
+
+    /**
+     * State of a request across its attempts.
+     */
+    private class Exchange {
+        private final UUID requestId = UUID.randomUUID();
+        private final Request request;
+        private final boolean replayable;
+        private final long deadlineNanos;
+        private HttpRequest httpRequest;
+        private boolean tokenRenewed;
+
+        private Exchange(Request request) {
+            log.debug("Sending request. Request identified as {}.", requestId);
+            this.request = request;
+            this.deadlineNanos = request.timeoutMillis() == null ? 0 : System.nanoTime() + MILLISECONDS.toNanos(request.timeoutMillis());
+            try {
+                var body = toBodyPublisher(request.body());
+                this.replayable = request.body() == null || request.body() instanceof ByteArrayInputStream;
+                var builder = HttpRequest.newBuilder(urlFactory.toHttpUrl(request).uri())
+                        .method(request.method().name(), body);
+                request.headers().forEach((name, values) -> {
+                    if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                        values.forEach(value -> builder.header(name, value));
+                    }
+                });
+                this.httpRequest = builder.build();
+            } catch (IOException e) {
+                throw new PolyApiException(format("Failed to read the body of request with ID %s.", requestId), e);
+            }
+        }
+
+        private List<String> pathSegments() {
+            return JdkHttpClient.pathSegments(httpRequest.uri());
+        }
+
+        /**
+         * Creates the request of the next attempt, limited to the time left of its timeout, or to the read timeout if
+         * it doesn't have one.
+         */
+        private HttpRequest attemptRequest() throws HttpTimeoutException {
+            long timeoutMillis = configuration.getReadTimeoutMillis();
+            if (deadlineNanos != 0) {
+                timeoutMillis = NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                if (timeoutMillis <= 0) {
+                    throw new HttpTimeoutException("Request timed out before being sent.");
+                }
+            }
+            return HttpRequest.newBuilder(httpRequest, (name, value) -> true)
+                    .timeout(Duration.ofMillis(timeoutMillis))
+                    .build();
+        }
+
+        /**
+         * Decides whether an attempt is retried, following the same rules as the {@link RetryInterceptor}.
+         *
+         * @return long The delay in milliseconds before the next attempt, or -1 if it's not retried.
+         */
+        private long retryDelayMillis(int attempt, HttpResponse<InputStream> response, IOException failure) {
+            if (failure == null && renewToken(response)) {
+                return 0;
+            }
+            var policy = configuration.getRetryPolicy();
+            if (!policy.isEnabled()) {
+                return -1;
+            }
+            boolean transientFailure = failure == null ? policy.getRetryableStatusCodes().contains(response.statusCode()) : !(failure instanceof HttpTimeoutException);
+            if (!transientFailure) {
+                if (failure == null) {
+                    retryBudget.onSuccess();
+                }
+                return -1;
+            }
+            retryBudget.onFailure();
+            boolean idempotent = replayable && (RetryInterceptor.SAFE_METHODS.contains(request.method().name())
+                    || httpRequest.headers().firstValue(RetryInterceptor.IDEMPOTENCY_KEY_HEADER).isPresent());
+            long delay = idempotent && attempt < policy.getMaxAttempts() ? policy.delayMillis(attempt, response == null ? null : response.headers().firstValue("Retry-After").orElse(null)) : -1;
+            if (delay < 0 || !retryBudget.canRetry() || deadlineNanos != 0 && System.nanoTime() + MILLISECONDS.toNanos(delay) - deadlineNanos >= 0) {
+                return -1;
+            }
+            log.debug("Request with ID {} failed with {}. Retrying in {}ms.", requestId, failure == null ? response.statusCode() : failure.getMessage(), delay);
+            return delay;
+        }
+
+        /**
+         * Feeds an attempt that is retried into the rate limiter and reserves the next one, the same as the
+         * {@link RateLimitInterceptor}, so that the retries adapt to the server and wait for their turn.
+         *
+         * @param delayMillis The delay before the next attempt set by the retry policy.
+         * @param response    The response of the attempt, or null if it failed without one.
+         * @return long The amount of nanoseconds to wait before the next attempt.
+         */
+        private long retryWaitNanos(long delayMillis, HttpResponse<InputStream> response) {
+            if (response != null) {
+                rateLimiter.onResponse(pathSegments(), response.statusCode(), toHeaders(response.headers()));
+            }
+            return Math.max(MILLISECONDS.toNanos(delayMillis), rateLimiter.reserve(pathSegments()));
+        }
+
+        /**
+         * Replaces the token of a request rejected with a 401 with a renewed one, the same as the
+         * {@link TokenRenewalAuthenticator}. It's only done once per request.
+         *
+         * @return boolean Whether the request can be retried with a renewed token.
+         */
+        private boolean renewToken(HttpResponse<InputStream> response) {
+            if (response.statusCode() != 401 || tokenRenewed || !replayable) {
+                return false;
+            }
+            var rejectedTokenHeader = httpRequest.headers().firstValue(AUTHORIZATION_HEADER);
+            if (rejectedTokenHeader.isEmpty() || !configuration.getTokenProvider().renew(rejectedTokenHeader.get())) {
+                return false;
+            }
+            log.debug("Request with ID {} rejected with 401. Retrying with a renewed token.", requestId);
+            tokenRenewed = true;
+            httpRequest = HttpRequest.newBuilder(httpRequest, (name, value) -> !AUTHORIZATION_HEADER.equalsIgnoreCase(name))
+                    .header(AUTHORIZATION_HEADER, configuration.getTokenProvider().getTokenAsHeader())
+                    .build();
+            return true;
+        }
+
+        private PolyApiException timeoutException(HttpTimeoutException e) {
+            if (request.timeoutMillis() != null) {
+                return new DeadlineExceededException(format("Request with ID %s didn't finish within its timeout of %dms.", requestId, request.timeoutMillis()), e);
+            }
+            return transportException(e);
+        }
+
+        /**
+         * Wraps the errors of the transport, so that the blocking and asynchronous calls fail the same way.
+         */
+        private PolyApiException transportException(Throwable e) {
+            return new PolyApiException(format("Request with ID %s failed.", requestId), e);
+        }
+    }
+
+    /**
+     * Body of a response that is closed when the timeout of its request runs out. Reads that are ongoing or made after
+     * that fail with an {@link HttpTimeoutException}.
+     */
+    private static class DeadlineInputStream extends FilterInputStream {
+        private static final int OPEN = 0;
+        private static final int EXPIRED = 1;
+        private static final int CLOSED = 2;
+        private final AtomicInteger state = new AtomicInteger(OPEN);
+
+        private DeadlineInputStream(InputStream body, long remainingNanos, Executor executor) {
+            super(body);
+            CompletableFuture.delayedExecutor(Math.max(remainingNanos, 0), NANOSECONDS, executor).execute(() -> {
+                if (state.compareAndSet(OPEN, EXPIRED)) {
+                    try {
+                        in.close();
+                    } catch (IOException e) {
+                        log.debug("Failed to close expired response body.", e);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return checkExpired(super.read());
+            } catch (IOException e) {
+                throw checkExpired(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                return checkExpired(super.read(buffer, offset, length));
+            } catch (IOException e) {
+                throw checkExpired(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (state.compareAndSet(OPEN, CLOSED)) {
+                super.close();
+            }
+        }
+
+        // Closing the body ends the ongoing reads, either with an error or as if the body had ended.
+        private int checkExpired(int result) throws HttpTimeoutException {
+            if (state.get() == EXPIRED) {
+                throw new HttpTimeoutException("Response body not read within the timeout of the request.");
+            }
+            return result;
+        }
+
+        private IOException checkExpired(IOException e) {
+            return state.get() == EXPIRED ? new HttpTimeoutException("Response body not read within the timeout of the request.") : e;
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            var thread = new Thread(runnable, format("poly-http-%d", count.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
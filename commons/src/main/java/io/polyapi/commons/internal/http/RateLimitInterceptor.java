@@ -0,0 +1,54 @@
+package io.polyapi.commons.internal.http;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * OkHttp interceptor that feeds every attempt of a request into the {@link RateLimiter}. It runs inside the
+ * {@link RetryInterceptor}, so the responses of the attempts that are retried adapt the rate as well, and the retries
+ * wait for their turn the same as new requests. The first attempt is reserved by the client before the call starts, so
+ * that asynchronous calls don't hold a thread while they wait.
+ */
+@Slf4j
+class RateLimitInterceptor implements Interceptor {
+    private final RateLimiter rateLimiter;
+
+    RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        var request = chain.request();
+        var pathSegments = request.url().pathSegments();
+        var reservation = request.tag(Reservation.class);
+        if (reservation == null || !reservation.consume()) {
+            long wait = rateLimiter.reserve(pathSegments);
+            if (wait > 0) {
+                log.debug("Rate limit reached. Attempt to {} waits {}ms.", request.url().encodedPath(), NANOSECONDS.toMillis(wait));
+                RetryInterceptor.await((long) Math.ceil(wait / 1_000_000D), chain.call());
+            }
+        }
+        var response = chain.proceed(request);
+        rateLimiter.onResponse(pathSegments, response.code(), response.headers().toMultimap());
+        return response;
+    }
+
+    /**
+     * Tag of a request whose first attempt has already been reserved.
+     */
+    static class Reservation {
+        private boolean reserved = true;
+
+        synchronized boolean consume() {
+            boolean result = reserved;
+            reserved = false;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.polyapi.commons.internal.http;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Client-side rate limiter with a global {@link TokenBucket} and optional buckets for specific keys, such as function
+ * IDs. A request is limited by the bucket of the first segment of its path that has one, as well as by the global
+ * bucket. The buckets adapt to the 429 responses and to the 'Retry-After' and rate limit headers sent by the server.
+ */
+@Slf4j
+class RateLimiter {
+    private final TokenBucket global;
+    private final Map<String, TokenBucket> keyed;
+
+    RateLimiter(Double permitsPerSecond, Integer burst, Map<String, Double> keyPermitsPerSecond, LongSupplier clock) {
+        int bucketBurst = burst == null ? 1 : burst;
+        this.global = new TokenBucket(permitsPerSecond == null ? 0 : permitsPerSecond, bucketBurst, clock);
+        this.keyed = keyPermitsPerSecond.entrySet().stream()
+                .collect(toMap(Map.Entry::getKey, entry -> new TokenBucket(entry.getValue(), bucketBurst, clock)));
+    }
+
+    /**
+     * Reserves the right to send a request.
+     *
+     * @param pathSegments The segments of the path of the request.
+     * @return long The amount of nanoseconds to wait before sending it.
+     */
+    long reserve(List<String> pathSegments) {
+        long wait = global.reserve();
+        var bucket = keyedBucket(pathSegments);
+        return bucket == null ? wait : Math.max(wait, bucket.reserve());
+    }
+
+    /**
+     * Adapts the rate to a response of the server.
+     *
+     * @param pathSegments The segments of the path of the request.
+     * @param statusCode   The status code of the response.
+     * @param headers      The headers of the response.
+     */
+    void onResponse(List<String> pathSegments, int statusCode, Map<String, List<String>> headers) {
+        var bucket = keyedBucket(pathSegments);
+        var target = bucket == null ? global : bucket;
+        if (statusCode == 429) {
+            target.onThrottled();
+            long pause = header(headers, "Retry-After")
+                    .map(RetryInterceptor::parseRetryAfter)
+                    .filter(millis -> millis > 0)
+                    .map(MILLISECONDS::toNanos)
+                    .orElse(0L);
+            log.debug("Request throttled by the server. Rate reduced to {} requests per second.", target.getRate());
+            target.pause(pause);
+        } else {
+            target.onSuccess();
+            if (header(headers, "RateLimit-Remaining", "X-RateLimit-Remaining").flatMap(RateLimiter::parseLong).filter(remaining -> remaining <= 0).isPresent()) {
+                header(headers, "RateLimit-Reset", "X-RateLimit-Reset")
+                        .flatMap(RateLimiter::parseLong)
+                        // Some servers send the time of the reset instead of the seconds left.
+                        .map(reset -> reset > 1_000_000_000L ? reset - System.currentTimeMillis() / 1000 : reset)
+                        .ifPresent(seconds -> target.pause(SECONDS.toNanos(Math.max(0, seconds))));
+            }
+        }
+    }
+
+    private TokenBucket keyedBucket(List<String> pathSegments) {
+        if (keyed.isEmpty()) {
+            return null;
+        }
+        for (String segment : pathSegments) {
+            var bucket = keyed.get(segment);
+            if (bucket != null) {
+                return bucket;
+            }
+        }
+        return null;
+    }
+
+    private static Optional<Long> parseLong(String value) {
+        try {
+            return Optional.of(Long.valueOf(value));
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring invalid rate limit header value '{}'.", value);
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<String> header(Map<String, List<String>> headers, String... names) {
+        for (var header : headers.entrySet()) {
+            for (String name : names) {
+                if (name.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                    return Optional.of(header.getValue().get(0).trim());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,161 @@
+package io.polyapi.commons.internal.http;
+
+import io.polyapi.commons.api.error.PolyApiException;
+import io.polyapi.commons.api.http.AccessToken;
+import io.polyapi.commons.api.http.TokenProvider;
+import io.polyapi.commons.api.http.TokenSource;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link TokenProvider} of short-lived tokens fetched from a {@link TokenSource}. The token and its header are cached
+ * until it expires, and a new one is fetched in the background before it does, so requests don't wait for it. Tokens
+ * are only fetched on the request path if there's none yet, if the background refresh didn't make it in time, or if
+ * the server rejects the current one. Concurrent fetches share a single call to the source.
+ */
+@Slf4j
+public class RefreshingTokenProvider implements TokenProvider, AutoCloseable {
+    private static final long MIN_RETRY_DELAY_MILLIS = 1000;
+
+    private final TokenSource source;
+    private final long refreshAheadMillis;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicReference<CompletableFuture<CachedToken>> ongoingFetch = new AtomicReference<>();
+    private volatile CachedToken current;
+
+    /**
+     * Creates the provider. No token is fetched until it's first needed.
+     *
+     * @param source             The source of the tokens.
+     * @param refreshAheadMillis The time in milliseconds before the expiration of a token at which a new one is fetched.
+     */
+    public RefreshingTokenProvider(TokenSource source, long refreshAheadMillis) {
+        this(source, refreshAheadMillis, System::currentTimeMillis, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "poly-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    RefreshingTokenProvider(TokenSource source, long refreshAheadMillis, LongSupplier clock, ScheduledExecutorService scheduler) {
+        this.source = source;
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.clock = clock;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public String getToken() {
+        return currentToken().token();
+    }
+
+    @Override
+    public String getTokenAsHeader() {
+        return currentToken().header();
+    }
+
+    @Override
+    public boolean renew(String rejectedTokenHeader) {
+        var token = current;
+        if (token != null && !token.header().equals(rejectedTokenHeader)) {
+            log.debug("Rejected token was already renewed.");
+            return true;
+        }
+        log.debug("Token rejected by the server. Fetching a new one.");
+        try {
+            return !join(fetch(token)).header().equals(rejectedTokenHeader);
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew rejected token.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Stops the background refreshes.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private CachedToken currentToken() {
+        var token = current;
+        return token == null || token.isExpired(clock.getAsLong()) ? join(fetch(token)) : token;
+    }
+
+    /**
+     * Fetches a new token to replace the stale one, or joins the fetch that is already ongoing.
+     *
+     * @param stale The token being replaced, or null if there's none.
+     * @return CompletableFuture The new token.
+     */
+    private CompletableFuture<CachedToken> fetch(CachedToken stale) {
+        var fetch = new CompletableFuture<CachedToken>();
+        var ongoing = ongoingFetch.compareAndExchange(null, fetch);
+        if (ongoing != null) {
+            return ongoing;
+        }
+        try {
+            // Another fetch may have replaced the stale token since it was read.
+            var token = current;
+            if (token == stale) {
+                AccessToken accessToken = source.fetch();
+                token = new CachedToken(accessToken.value(), format("Bearer %s", accessToken.value()), accessToken.expiresAt() == null ? Long.MAX_VALUE : accessToken.expiresAt().toEpochMilli());
+                current = token;
+                scheduleRefresh(token, token.expiresAtMillis() - refreshAheadMillis - clock.getAsLong());
+            }
+            fetch.complete(token);
+        } catch (RuntimeException e) {
+            fetch.completeExceptionally(e);
+        } finally {
+            ongoingFetch.set(null);
+        }
+        return fetch;
+    }
+
+    private void scheduleRefresh(CachedToken token, long delayMillis) {
+        if (token.expiresAtMillis() == Long.MAX_VALUE || scheduler.isShutdown()) {
+            return;
+        }
+        log.debug("Refreshing token in {}ms.", Math.max(delayMillis, 0));
+        scheduler.schedule(() -> {
+            if (current != token) {
+                return;
+            }
+            try {
+                join(fetch(token));
+            } catch (RuntimeException e) {
+                long remainingMillis = token.expiresAtMillis() - clock.getAsLong();
+                log.warn("Failed to refresh token. It expires in {}ms.", remainingMillis, e);
+                if (remainingMillis > 0) {
+                    scheduleRefresh(token, Math.max(remainingMillis / 2, MIN_RETRY_DELAY_MILLIS));
+                }
+            }
+        }, Math.max(delayMillis, 0), MILLISECONDS);
+    }
+
+    private static CachedToken join(CompletableFuture<CachedToken> fetch) {
+        try {
+            return fetch.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new PolyApiException(e.getCause());
+        }
+    }
+
+    private record CachedToken(String token, String header, long expiresAtMillis) {
+
+        private boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+}
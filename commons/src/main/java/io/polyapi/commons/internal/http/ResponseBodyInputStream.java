@@ -0,0 +1,28 @@
+package io.polyapi.commons.internal.http;
+
+import okhttp3.Response;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+
+/**
+ * {@link java.io.InputStream} that reads the body of an OkHttp {@link Response} as it arrives from the connection.
+ * Closing this stream closes the response and releases the connection back to the pool.
+ */
+class ResponseBodyInputStream extends FilterInputStream {
+    private final Response response;
+
+    ResponseBodyInputStream(Response response) {
+        super(response.body().byteStream());
+        this.response = response;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.polyapi.commons.internal.http;
+
+/**
+ * Token bucket that limits the retries to a fraction of the successful requests.
+ */
+class RetryBudget {
+    private final double maxTokens;
+    private final double tokenRatio;
+    private double tokens;
+
+    RetryBudget(int maxTokens, double tokenRatio) {
+        this.maxTokens = maxTokens;
+        this.tokenRatio = tokenRatio;
+        this.tokens = maxTokens;
+    }
+
+    synchronized void onSuccess() {
+        tokens = Math.min(maxTokens, tokens + tokenRatio);
+    }
+
+    synchronized void onFailure() {
+        tokens = Math.max(0, tokens - 1);
+    }
+
+    synchronized boolean canRetry() {
+        return tokens > maxTokens / 2;
+    }
+}
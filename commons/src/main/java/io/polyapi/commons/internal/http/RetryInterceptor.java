@@ -0,0 +1,112 @@
+package io.polyapi.commons.internal.http;
+
+import io.polyapi.commons.api.metrics.PolyMetrics;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * OkHttp interceptor that applies a {@link RetryPolicy}. It runs on the thread of the call, so the waits between
+ * attempts are checked for cancellation.
+ */
+@Slf4j
+class RetryInterceptor implements Interceptor {
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final long CANCELLATION_CHECK_MILLIS = 50;
+    private final RetryPolicy policy;
+    private final RetryBudget budget;
+    private final PolyMetrics metrics;
+
+    RetryInterceptor(RetryPolicy policy, PolyMetrics metrics) {
+        this.policy = policy;
+        this.budget = new RetryBudget(policy.getBudgetTokens(), policy.getBudgetTokenRatio());
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        var request = chain.request();
+        boolean idempotent = isIdempotent(request);
+        for (int attempt = 1; ; attempt++) {
+            Response response = null;
+            IOException failure = null;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                failure = e;
+            }
+            boolean transientFailure = failure == null ? policy.getRetryableStatusCodes().contains(response.code()) : !chain.call().isCanceled();
+            if (!transientFailure) {
+                if (failure == null) {
+                    budget.onSuccess();
+                }
+                return rethrowOrReturn(failure, response);
+            }
+            budget.onFailure();
+            long delay = idempotent && attempt < policy.getMaxAttempts() ? policy.delayMillis(attempt, response == null ? null : response.header("Retry-After")) : -1;
+            if (delay < 0 || !budget.canRetry()) {
+                return rethrowOrReturn(failure, response);
+            }
+            log.debug("Request to {} failed with {}. Retrying in {}ms.", request.url().encodedPath(), failure == null ? response.code() : failure.getMessage(), delay);
+            if (response != null) {
+                response.close();
+            }
+            await(delay, chain.call());
+            metrics.recordRetry(request.url().encodedPath().substring(1), attempt + 1);
+        }
+    }
+
+    private boolean isIdempotent(Request request) {
+        return (SAFE_METHODS.contains(request.method()) || request.header(IDEMPOTENCY_KEY_HEADER) != null)
+                && (request.body() == null || !request.body().isOneShot());
+    }
+
+    static long parseRetryAfter(String retryAfter) {
+        try {
+            return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                return Math.max(0, Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(retryAfter.trim(), RFC_1123_DATE_TIME)).toMillis());
+            } catch (DateTimeParseException dateException) {
+                log.debug("Ignoring invalid Retry-After header '{}'.", retryAfter);
+                return -1;
+            }
+        }
+    }
+
+    static void await(long delayMillis, Call call) throws IOException {
+        long deadline = System.nanoTime() + MILLISECONDS.toNanos(delayMillis);
+        try {
+            for (long remaining = delayMillis; remaining > 0; remaining = NANOSECONDS.toMillis(deadline - System.nanoTime())) {
+                if (call.isCanceled()) {
+                    throw new IOException("Canceled");
+                }
+                Thread.sleep(Math.min(remaining, CANCELLATION_CHECK_MILLIS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry.");
+        }
+    }
+
+    private static Response rethrowOrReturn(IOException failure, Response response) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        return response;
+    }
+}
@@ -0,0 +1,141 @@
+package io.polyapi.commons.internal.http;
+
+import lombok.Getter;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Policy for retrying requests that fail because of transient errors: connection failures and the status codes that
+ * indicate that the server is temporarily unable to handle the request. Only safe methods, or requests with an
+ * 'Idempotency-Key' header, are retried. The delay between attempts grows exponentially with jitter, unless the response
+ * has a 'Retry-After' header. A retry budget shared by all the requests of a client stops retrying when most of the
+ * recent requests failed, so that retries don't amplify the load of a server that is down.
+ */
+@Getter
+public class RetryPolicy {
+    public static final Integer DEFAULT_MAX_ATTEMPTS = 3;
+    public static final Long DEFAULT_INITIAL_BACKOFF_MILLIS = 100L;
+    public static final Long DEFAULT_MAX_BACKOFF_MILLIS = 10000L;
+    public static final Set<Integer> DEFAULT_RETRYABLE_STATUS_CODES = Set.of(408, 429, 502, 503, 504);
+    private Integer maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private Long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+    private Long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+    private Double backoffMultiplier = 2D;
+    private Set<Integer> retryableStatusCodes = DEFAULT_RETRYABLE_STATUS_CODES;
+    private Integer budgetTokens = 10;
+    private Double budgetTokenRatio = 0.1;
+
+    private RetryPolicy() {
+    }
+
+    /**
+     * @return RetryPolicy A policy that doesn't retry.
+     */
+    public static RetryPolicy disabled() {
+        return builder().withMaxAttempts(1).build();
+    }
+
+    public static RetryPolicyBuilder builder() {
+        return new RetryPolicyBuilder();
+    }
+
+    public boolean isEnabled() {
+        return maxAttempts > 1;
+    }
+
+    /**
+     * Calculates the delay before the next attempt. The 'Retry-After' header of the response takes precedence over the
+     * exponential backoff, and if it asks for more than the maximum backoff the request is not retried.
+     *
+     * @param attempt    The number of the attempt that failed, starting at 1.
+     * @param retryAfter The 'Retry-After' header of the response, or null if there's none.
+     * @return long The delay in milliseconds, or -1 if the request shouldn't be retried.
+     */
+    long delayMillis(int attempt, String retryAfter) {
+        if (retryAfter != null) {
+            long millis = RetryInterceptor.parseRetryAfter(retryAfter);
+            if (millis >= 0) {
+                return millis > maxBackoffMillis ? -1 : millis;
+            }
+        }
+        long backoff = (long) Math.min(maxBackoffMillis, initialBackoffMillis * Math.pow(backoffMultiplier, attempt - 1));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    public static class RetryPolicyBuilder {
+        private final RetryPolicy policy = new RetryPolicy();
+
+        private RetryPolicyBuilder() {
+        }
+
+        /**
+         * Sets the maximum amount of attempts of a request, including the first one.
+         *
+         * @param maxAttempts The maximum amount of attempts. By default, 3. A value of 1 disables the retries.
+         */
+        public RetryPolicyBuilder withMaxAttempts(Integer maxAttempts) {
+            this.policy.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the delay before the first retry. Each following retry waits the previous delay multiplied by the
+         * backoff multiplier, up to the maximum backoff. Half of each delay is randomized.
+         *
+         * @param millis The amount of milliseconds before the first retry. By default, 100.
+         */
+        public RetryPolicyBuilder withInitialBackoffMillis(Long millis) {
+            this.policy.initialBackoffMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets the maximum delay between attempts. Responses with a 'Retry-After' header that asks for a longer delay
+         * are not retried.
+         *
+         * @param millis The maximum amount of milliseconds between attempts. By default, 10 seconds.
+         */
+        public RetryPolicyBuilder withMaxBackoffMillis(Long millis) {
+            this.policy.maxBackoffMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets the factor by which the delay grows after each attempt.
+         *
+         * @param multiplier The backoff multiplier. By default, 2.
+         */
+        public RetryPolicyBuilder withBackoffMultiplier(Double multiplier) {
+            this.policy.backoffMultiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * Sets the status codes of the responses that are retried.
+         *
+         * @param statusCodes The retryable status codes. By default, 408, 429, 502, 503 and 504.
+         */
+        public RetryPolicyBuilder withRetryableStatusCodes(Set<Integer> statusCodes) {
+            this.policy.retryableStatusCodes = Set.copyOf(statusCodes);
+            return this;
+        }
+
+        /**
+         * Sets the retry budget. Each transient failure consumes a token and each other response gives back a fraction
+         * of one, up to the maximum. Requests are only retried while more than half of the tokens are left.
+         *
+         * @param tokens The maximum amount of tokens. By default, 10.
+         * @param ratio  The fraction of a token given back by each response that isn't a transient failure. By default, 0.1.
+         */
+        public RetryPolicyBuilder withBudget(Integer tokens, Double ratio) {
+            this.policy.budgetTokens = tokens;
+            this.policy.budgetTokenRatio = ratio;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return policy;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.polyapi.commons.internal.http;
+
+import java.util.function.LongSupplier;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Token bucket that hands out reservations instead of rejecting requests. Each reservation takes a token, and when
+ * there are none left the caller is told how long to wait for its turn, so requests are spread at the configured rate
+ * instead of bursting and failing. The rate is halved when the server throttles the client and recovers gradually on
+ * successful responses. A bucket without rate doesn't limit requests, but still honors the pauses requested by the
+ * server.
+ */
+class TokenBucket {
+    private static final long NANOS_PER_SECOND = SECONDS.toNanos(1);
+    private final double configuredRate;
+    private final double capacity;
+    private final LongSupplier clock;
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    /**
+     * @param permitsPerSecond The rate of requests. Zero or less for no limit.
+     * @param burst            The maximum amount of requests sent at once after a period of inactivity.
+     * @param clock            The source of the current time in nanoseconds.
+     */
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier clock) {
+        this.configuredRate = permitsPerSecond;
+        this.rate = permitsPerSecond;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.clock = clock;
+        this.lastRefill = clock.getAsLong();
+        this.pausedUntil = lastRefill;
+    }
+
+    /**
+     * Takes a token.
+     *
+     * @return long The amount of nanoseconds to wait before sending the request.
+     */
+    synchronized long reserve() {
+        long now = clock.getAsLong();
+        long wait = Math.max(0, pausedUntil - now);
+        if (configuredRate > 0) {
+            refill(now);
+            tokens--;
+            if (tokens < 0) {
+                wait = Math.max(wait, (long) (-tokens / rate * NANOS_PER_SECOND));
+            }
+        }
+        return wait;
+    }
+
+    /**
+     * Stops handing out tokens without waiting for a while.
+     *
+     * @param nanos The amount of nanoseconds from now that requests have to wait.
+     */
+    synchronized void pause(long nanos) {
+        pausedUntil = Math.max(pausedUntil, clock.getAsLong() + nanos);
+    }
+
+    synchronized void onThrottled() {
+        if (configuredRate > 0) {
+            refill(clock.getAsLong());
+            rate = Math.max(configuredRate / 10, rate / 2);
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (rate < configuredRate) {
+            refill(clock.getAsLong());
+            rate = Math.min(configuredRate, rate + configuredRate / 100);
+        }
+    }
+
+    synchronized double getRate() {
+        return rate;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * rate / NANOS_PER_SECOND);
+        lastRefill = now;
+    }
+}
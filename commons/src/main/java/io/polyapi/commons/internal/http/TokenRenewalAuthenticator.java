@@ -0,0 +1,38 @@
+package io.polyapi.commons.internal.http;
+
+import io.polyapi.commons.api.http.TokenProvider;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Authenticator;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.Route;
+
+/**
+ * {@link Authenticator} that retries a request rejected with a 401 once, with the token renewed by the
+ * {@link TokenProvider}. Requests whose body can't be sent again are not retried.
+ */
+@Slf4j
+class TokenRenewalAuthenticator implements Authenticator {
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+
+    private final TokenProvider tokenProvider;
+
+    TokenRenewalAuthenticator(TokenProvider tokenProvider) {
+        this.tokenProvider = tokenProvider;
+    }
+
+    @Override
+    public Request authenticate(Route route, Response response) {
+        var rejectedTokenHeader = response.request().header(AUTHORIZATION_HEADER);
+        if (rejectedTokenHeader == null || response.priorResponse() != null && response.priorResponse().code() == 401) {
+            return null;
+        }
+        if (!tokenProvider.renew(rejectedTokenHeader)) {
+            return null;
+        }
+        log.debug("Retrying request rejected with 401 with a renewed token.");
+        return response.request().newBuilder()
+                .header(AUTHORIZATION_HEADER, tokenProvider.getTokenAsHeader())
+                .build();
+    }
+}
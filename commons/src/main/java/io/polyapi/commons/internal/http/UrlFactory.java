@@ -0,0 +1,39 @@
+package io.polyapi.commons.internal.http;
+
+import io.polyapi.commons.api.http.Request;
+import okhttp3.HttpUrl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Composes the URLs of the {@link Request}s, so that all the clients encode them the same way. The path and the query
+ * parameters are percent-encoded where needed: spaces, '&', '#' and non-ASCII characters are encoded, while valid
+ * escapes such as '%20' are kept as they are. The parsed URL of each host and port is cached, as it's the same for most
+ * requests.
+ */
+class UrlFactory {
+    private final Map<Origin, HttpUrl> baseUrls = new ConcurrentHashMap<>();
+
+    /**
+     * Composes the URL of a request. Paths that carry their own query are parsed whole.
+     *
+     * @param request The request.
+     * @return HttpUrl The URL of the request.
+     */
+    HttpUrl toHttpUrl(Request request) {
+        if (request.relativePath().indexOf('?') >= 0 || request.relativePath().indexOf('#') >= 0) {
+            return HttpUrl.get(request.getUrl());
+        }
+        var url = baseUrls.computeIfAbsent(new Origin(request.host(), request.port()), origin -> HttpUrl.get(format("%s:%s/", origin.host(), origin.port())))
+                .newBuilder()
+                .addEncodedPathSegments(request.relativePath());
+        request.queryParams().forEach((name, values) -> values.forEach(value -> url.addEncodedQueryParameter(name, value)));
+        return url.build();
+    }
+
+    private record Origin(String host, Integer port) {
+    }
+}
@@ -11,10 +11,24 @@ import lombok.extern.slf4j.Slf4j;
 public class EmitterHandle implements Handle {
     private final Emitter emitter;
     private final String eventType;
+    private final Emitter.Listener listener;
 
     public EmitterHandle(String eventType, Emitter emitter) {
+        this(eventType, emitter, null);
+    }
+
+    /**
+     * Creates a handle that only removes the given listener when closed, leaving other listeners of the same event
+     * registered.
+     *
+     * @param eventType The event listened to.
+     * @param emitter   The emitter of the event.
+     * @param listener  The listener to remove on close.
+     */
+    public EmitterHandle(String eventType, Emitter emitter, Emitter.Listener listener) {
         this.eventType = eventType;
         this.emitter = emitter;
+        this.listener = listener;
     }
 
 
@@ -24,7 +38,11 @@ public class EmitterHandle implements Handle {
     @Override
     public void close() {
         log.debug("Closing listener of for event type '{}'.", eventType);
-        emitter.off(eventType);
+        if (listener == null) {
+            emitter.off(eventType);
+        } else {
+            emitter.off(eventType, listener);
+        }
         log.debug("Listener closed.");
     }
 }
\ No newline at end of file
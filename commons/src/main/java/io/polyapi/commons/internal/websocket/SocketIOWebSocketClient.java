@@ -9,6 +9,7 @@ import io.polyapi.commons.api.websocket.Handle;
 import io.polyapi.commons.api.websocket.WebSocketClient;
 import io.socket.client.IO;
 import io.socket.client.Socket;
+import io.socket.emitter.Emitter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.Type;
@@ -131,7 +132,39 @@ public class SocketIOWebSocketClient implements WebSocketClient {
     }
 
     @Override
-    public void close() {
-        socket.disconnect();
+    public <T> Handle registerVariableChangeEventHandler(String variableId, Type eventType, Consumer<T> listener) {
+        try {
+            CompletableFuture<Boolean> completableFuture = new CompletableFuture<Boolean>()
+                    .orTimeout(registrationTimeout, MILLISECONDS);
+            log.info("Registering variable change event handler on server.");
+            getSocket().emit("registerVariableChangeEventHandler", new Object[]{Map.of("clientID", clientId,
+                            "variableId", variableId,
+                            "apiKey", tokenProvider.getToken())},
+                    objects -> {
+                        log.debug("Received response from server.");
+                        completableFuture.complete((boolean) Optional.ofNullable(objects[0]).orElse(FALSE));
+                    });
+            if (FALSE.equals(completableFuture.get())) {
+                throw new EventRegistrationException("registerVariableChangeEventHandler", variableId);
+            }
+            String eventKey = format("handleVariableChangeEvent:%s", variableId);
+            Emitter.Listener emitterListener = objects -> {
+                log.debug("Received change event for variable {}.", variableId);
+                T event = jsonParser.parseString(objects[0].toString(), eventType);
+                listener.accept(event);
+            };
+            return new EmitterHandle(eventKey, getSocket().on(eventKey, emitterListener), emitterListener);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new EventRegistrationException("registerVariableChangeEventHandler", variableId, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (socket != null) {
+            log.debug("Disconnecting from websocket server.");
+            socket.disconnect();
+            socket = null;
+        }
     }
 }
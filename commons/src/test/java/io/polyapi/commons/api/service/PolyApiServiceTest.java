@@ -0,0 +1,121 @@
+package io.polyapi.commons.api.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.polyapi.commons.api.error.DeadlineExceededException;
+import io.polyapi.commons.api.error.http.NotFoundException;
+import io.polyapi.commons.api.metrics.PolyMetrics;
+import io.polyapi.commons.api.metrics.RequestMetrics;
+import io.polyapi.commons.internal.http.DefaultHttpClient;
+import io.polyapi.commons.internal.http.HttpClientConfiguration;
+import io.polyapi.commons.internal.json.JacksonJsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link PolyApiService}.
+ */
+public class PolyApiServiceTest {
+    private HttpServer server;
+    private List<RequestMetrics> recorded;
+    private PolyApiService service;
+    private CountDownLatch slowCalls;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        slowCalls = new CountDownLatch(1);
+        server.createContext("/echo", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            slowCalls.countDown();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "ok".getBytes();
+            exchange.getResponseHeaders().add("Content-type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        recorded = new CopyOnWriteArrayList<>();
+        service = new PolyApiService(new DefaultHttpClient(HttpClientConfiguration.builder("apiKey").build()), new JacksonJsonParser(), "http://localhost", server.getAddress().getPort(), false, new PolyMetrics() {
+            @Override
+            public void recordRequest(RequestMetrics metrics) {
+                recorded.add(metrics);
+            }
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void postMetricsTest() throws Exception {
+        assertThat(service.<Map<String, Integer>, Map<String, Integer>>post("echo", Map.of("value", 1), Map.class), equalTo(Map.of("value", 1)));
+        assertThat(service.<Map<String, Integer>, Map<String, Integer>>postAsync("echo", Map.of("value", 2), Map.class).get(10, SECONDS), equalTo(Map.of("value", 2)));
+        assertThat(recorded.size(), equalTo(2));
+        for (var metrics : recorded) {
+            assertThat(metrics.operation(), equalTo("echo"));
+            assertThat(metrics.statusCode(), equalTo(200));
+            assertThat(metrics.requestBytes(), equalTo(11L));
+            assertThat(metrics.responseBytes(), equalTo(11L));
+            assertThat(metrics.error(), nullValue());
+        }
+    }
+
+    @Test
+    public void getErrorMetricsTest() {
+        assertThrows(NotFoundException.class, () -> service.get("missing", String.class));
+        assertThat(recorded.size(), equalTo(1));
+        assertThat(recorded.get(0).statusCode(), equalTo(404));
+        assertThat(recorded.get(0).error(), instanceOf(NotFoundException.class));
+    }
+
+    @Test
+    public void getCoalescedDeadlineTest() throws Exception {
+        var coalescingService = new PolyApiService(new DefaultHttpClient(HttpClientConfiguration.builder("apiKey").build()), new JacksonJsonParser(), "http://localhost", server.getAddress().getPort(), true);
+        var leader = CompletableFuture.supplyAsync(() -> coalescingService.<String>get("slow", String.class));
+        slowCalls.await(10, SECONDS);
+        long start = System.nanoTime();
+        assertThrows(DeadlineExceededException.class, () -> Deadline.call(Deadline.after(50), () -> coalescingService.<String>get("slow", String.class)));
+        assertThat(NANOSECONDS.toMillis(System.nanoTime() - start) < 500, equalTo(true));
+        assertThat(coalescingService.getRequestCoalescer().orElseThrow().getCoalescedCount(), equalTo(0L));
+        assertThat(leader.get(10, SECONDS), equalTo("ok"));
+    }
+}
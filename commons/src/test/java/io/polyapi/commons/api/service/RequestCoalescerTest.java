@@ -0,0 +1,109 @@
+package io.polyapi.commons.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link RequestCoalescer}.
+ */
+public class RequestCoalescerTest {
+
+    @Test
+    public void executeTest() throws Exception {
+        var coalescer = new RequestCoalescer();
+        var calls = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var leader = CompletableFuture.supplyAsync(() -> coalescer.execute("key", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(10, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "result";
+        }));
+        started.await(10, SECONDS);
+        var follower = CompletableFuture.supplyAsync(() -> coalescer.<String>execute("key", () -> {
+            calls.incrementAndGet();
+            return "other";
+        }));
+        while (coalescer.getCoalescedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        assertThat(leader.get(10, SECONDS), equalTo("result"));
+        assertThat(follower.get(10, SECONDS), equalTo("result"));
+        assertThat(calls.get(), equalTo(1));
+        assertThat(coalescer.getExecutedCount(), equalTo(1L));
+        assertThat(coalescer.getInFlightCount(), equalTo(0));
+    }
+
+    @Test
+    public void executeAsyncTest() throws Exception {
+        var coalescer = new RequestCoalescer();
+        var response = new CompletableFuture<String>();
+        var first = coalescer.executeAsync("key", () -> response);
+        var second = coalescer.<String>executeAsync("key", CompletableFuture::new);
+        second.cancel(true);
+        response.complete("result");
+        assertThat(first.get(10, SECONDS), equalTo("result"));
+        assertThat(coalescer.getCoalescedCount(), equalTo(1L));
+        assertThat(coalescer.executeAsync("key", () -> CompletableFuture.completedFuture("new")).get(10, SECONDS), equalTo("new"));
+    }
+
+    @Test
+    public void executeErrorTest() {
+        var coalescer = new RequestCoalescer();
+        assertThrows(IllegalStateException.class, () -> coalescer.execute("key", () -> {
+            throw new IllegalStateException();
+        }));
+        assertThat(coalescer.getInFlightCount(), equalTo(0));
+    }
+
+    @Test
+    public void executeFatalErrorTest() throws Exception {
+        var coalescer = new RequestCoalescer();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var leader = CompletableFuture.runAsync(() -> coalescer.execute("key", () -> {
+            started.countDown();
+            try {
+                release.await(10, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new AssertionError("Fatal failure.");
+        }));
+        started.await(10, SECONDS);
+        var follower = CompletableFuture.runAsync(() -> coalescer.execute("key", () -> "other"));
+        while (coalescer.getCoalescedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        assertThat(assertThrows(ExecutionException.class, () -> leader.get(10, SECONDS)).getCause(), instanceOf(AssertionError.class));
+        assertThat(assertThrows(ExecutionException.class, () -> follower.get(10, SECONDS)).getCause(), instanceOf(AssertionError.class));
+        assertThat(coalescer.getInFlightCount(), equalTo(0));
+    }
+
+    @Test
+    public void executeAsyncFatalErrorTest() {
+        var coalescer = new RequestCoalescer();
+        var result = coalescer.<String>executeAsync("key", () -> {
+            throw new AssertionError("Fatal failure.");
+        });
+        assertThat(assertThrows(ExecutionException.class, () -> result.get(10, SECONDS)).getCause(), instanceOf(AssertionError.class));
+        assertThat(coalescer.getInFlightCount(), equalTo(0));
+    }
+}
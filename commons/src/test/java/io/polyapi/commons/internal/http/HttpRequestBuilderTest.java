@@ -1,8 +1,40 @@
 package io.polyapi.commons.internal.http;
 
+import io.polyapi.commons.api.http.Request;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.polyapi.commons.api.http.HttpMethod.GET;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
 /**
  * Test class for {@link HttpRequestBuilder}.
  */
 public class HttpRequestBuilderTest {
-  // FIXME: Add tests.
+
+  @Test
+  public void buildTest() {
+    var headers = new HashMap<String, List<String>>();
+    headers.put("Accept", new ArrayList<>(List.of("application/json")));
+    Request request = new HttpRequestBuilder("https://localhost", 8080, GET, "functions/execute")
+      .withHeader("Accept", "text/plain")
+      .withHeaders(headers)
+      .withQueryParam("page", "1")
+      .withQueryParams(Map.of("page", List.of("2")))
+      .withQueryParam("size", "10")
+      .build();
+    headers.get("Accept").add("text/html");
+    assertThat(request.headers(), equalTo(Map.of("Accept", List.of("text/plain", "application/json"))));
+    assertThat(request.getUrl(), equalTo("https://localhost:8080/functions/execute?page=1&page=2&size=10"));
+  }
+
+  @Test
+  public void getUrlWithoutQueryParamsTest() {
+    assertThat(new HttpRequestBuilder("https://localhost", 443, GET, "specs").build().getUrl(), equalTo("https://localhost:443/specs"));
+  }
 }
@@ -0,0 +1,144 @@
+package io.polyapi.commons.internal.http;
+
+import com.sun.net.httpserver.HttpServer;
+import io.polyapi.commons.api.http.HttpClient;
+import io.polyapi.commons.api.http.Request;
+import io.polyapi.commons.api.http.Response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import static io.polyapi.commons.api.http.HttpMethod.POST;
+import static java.lang.String.format;
+
+/**
+ * Compares the {@link HttpTransport}s against a local mock server: throughput, latency percentiles and bytes allocated
+ * per request, for blocking and asynchronous calls. It is not part of the test suite, as its results depend on the
+ * machine. Run it with the test classpath, optionally with the amount of requests and the concurrency as arguments:
+ * <pre>{@code
+ * java -cp <test classpath> io.polyapi.commons.internal.http.HttpTransportComparison 20000 16
+ * }</pre>
+ */
+public class HttpTransportComparison {
+    private static final String BODY = "{\"id\":\"aa5bd8a6-2b1e-4a2a-9d5c-b8a0e3a5e4f1\",\"values\":[1,2,3,4,5,6,7,8,9,10],\"name\":\"comparison\"}";
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        // Without it, the delayed acknowledgements of the mock server dominate the latency of small requests.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(concurrency));
+        server.createContext("/echo", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            System.out.printf("%-8s %-6s %12s %10s %10s %10s %14s%n", "client", "mode", "requests/s", "p50 ms", "p99 ms", "max ms", "bytes/request");
+            for (var transport : HttpTransport.values()) {
+                var configuration = HttpClientConfiguration.builder("apiKey")
+                        .withMaxRequests(concurrency)
+                        .withMaxRequestsPerHost(concurrency)
+                        .build();
+                try (var client = transport.createClient(configuration)) {
+                    int port = server.getAddress().getPort();
+                    // Warm up the connections and the JIT before measuring.
+                    run(client, port, requests / 4, concurrency, false);
+                    print(transport, "sync", run(client, port, requests, concurrency, false));
+                    run(client, port, requests / 4, concurrency, true);
+                    print(transport, "async", run(client, port, requests, concurrency, true));
+                }
+            }
+        } finally {
+            server.stop(0);
+            System.exit(0);
+        }
+    }
+
+    private static Result run(HttpClient client, int port, int requests, int concurrency, boolean async) throws Exception {
+        long[] latencies = new long[requests];
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        if (async) {
+            var permits = new Semaphore(concurrency);
+            var calls = new CompletableFuture<?>[requests];
+            for (int i = 0; i < requests; i++) {
+                permits.acquire();
+                int index = i;
+                long callStart = System.nanoTime();
+                calls[i] = client.sendAsync(request(client, port)).whenComplete((response, error) -> {
+                    latencies[index] = System.nanoTime() - callStart;
+                    close(response);
+                    permits.release();
+                });
+            }
+            CompletableFuture.allOf(calls).join();
+        } else {
+            var threads = Executors.newFixedThreadPool(concurrency);
+            var calls = new CompletableFuture<?>[requests];
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                calls[i] = CompletableFuture.runAsync(() -> {
+                    long callStart = System.nanoTime();
+                    close(client.send(request(client, port)));
+                    latencies[index] = System.nanoTime() - callStart;
+                }, threads);
+            }
+            CompletableFuture.allOf(calls).join();
+            threads.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        Arrays.sort(latencies);
+        return new Result(requests * 1_000_000_000D / elapsed,
+                latencies[requests / 2] / 1_000_000D,
+                latencies[(int) Math.ceil(requests * 0.99) - 1] / 1_000_000D,
+                latencies[requests - 1] / 1_000_000D,
+                allocated / requests);
+    }
+
+    private static Request request(HttpClient client, int port) {
+        return client.prepareAuthenticatedRequest("http://localhost", port, POST, "echo")
+                .withHeader("Content-Type", "application/json")
+                .withBody(BODY)
+                .build();
+    }
+
+    private static void close(Response response) {
+        if (response != null) {
+            try {
+                response.body().readAllBytes();
+                response.body().close();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Adds up the bytes allocated by all the live threads of the JVM, which includes the threads of the clients and of
+     * the mock server.
+     */
+    private static long allocatedBytes() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds())).filter(bytes -> bytes > 0).sum();
+    }
+
+    private static void print(HttpTransport transport, String mode, Result result) {
+        System.out.println(format("%-8s %-6s %12.0f %10.2f %10.2f %10.2f %14d", transport, mode, result.requestsPerSecond(), result.p50Millis(), result.p99Millis(), result.maxMillis(), result.bytesPerRequest()));
+    }
+
+    private record Result(double requestsPerSecond, double p50Millis, double p99Millis, double maxMillis, long bytesPerRequest) {
+    }
+}
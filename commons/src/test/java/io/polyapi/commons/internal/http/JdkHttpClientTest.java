@@ -0,0 +1,214 @@
+package io.polyapi.commons.internal.http;
+
+import com.sun.net.httpserver.HttpServer;
+import io.polyapi.commons.api.error.DeadlineExceededException;
+import io.polyapi.commons.api.error.PolyApiException;
+import io.polyapi.commons.api.error.http.NotFoundException;
+import io.polyapi.commons.api.error.http.UnauthorizedException;
+import io.polyapi.commons.api.http.AccessToken;
+import io.polyapi.commons.api.http.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.polyapi.commons.api.http.HttpMethod.GET;
+import static io.polyapi.commons.api.http.HttpMethod.POST;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link JdkHttpClient}
+ */
+@Slf4j
+public class JdkHttpClientTest {
+    private static final String HOST = "http://localhost";
+    private HttpServer server;
+    private JdkHttpClient client;
+    private AtomicInteger flakyCalls;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        log.debug("Starting mock server.");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/echo", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        flakyCalls = new AtomicInteger();
+        server.createContext("/flaky", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(flakyCalls.incrementAndGet() < 3 ? 503 : 200, -1);
+            exchange.close();
+        });
+        server.createContext("/query", exchange -> {
+            byte[] query = exchange.getRequestURI().getRawQuery().getBytes(UTF_8);
+            exchange.sendResponseHeaders(200, query.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(query);
+            }
+        });
+        server.createContext("/secured", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            if ("Bearer token-2".equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } else {
+                exchange.sendResponseHeaders(401, -1);
+                exchange.close();
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/trickle", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 20; i++) {
+                    out.write('a');
+                    out.flush();
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                log.debug("Client stopped reading the trickled body.");
+            }
+        });
+        server.start();
+        client = new JdkHttpClient(HttpClientConfiguration.builder("apiKey").build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void sendTest() throws IOException {
+        Response response = client.send(client.prepareAuthenticatedRequest(HOST, port(), POST, "echo")
+                .withBody("{\"value\":1}")
+                .build());
+        assertThat(response.statusCode(), equalTo(200));
+        assertThat(response.headers().get("content-type"), equalTo(List.of("application/json")));
+        assertThat(response.headers().get("Content-type"), equalTo(List.of("application/json")));
+        assertThat(new String(response.body().readAllBytes(), UTF_8), equalTo("{\"value\":1}"));
+    }
+
+    @Test
+    public void sendAsyncErrorTest() {
+        var future = client.sendAsync(client.prepareAuthenticatedRequest(HOST, port(), GET, "missing").build());
+        var exception = assertThrows(ExecutionException.class, () -> future.get(10, SECONDS));
+        assertThat(exception.getCause(), instanceOf(NotFoundException.class));
+    }
+
+    @Test
+    public void sendConnectionErrorTest() throws IOException {
+        int closedPort;
+        try (var socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        assertThat(assertThrows(PolyApiException.class, () -> client.send(client.prepareAuthenticatedRequest(HOST, closedPort, GET, "echo").build())).getCause(), instanceOf(IOException.class));
+        var future = client.sendAsync(client.prepareAuthenticatedRequest(HOST, closedPort, GET, "echo").build());
+        var exception = assertThrows(ExecutionException.class, () -> future.get(10, SECONDS));
+        assertThat(exception.getCause(), instanceOf(PolyApiException.class));
+        assertThat(exception.getCause().getCause(), instanceOf(IOException.class));
+    }
+
+    @Test
+    public void sendRetryTest() throws Exception {
+        var retryingClient = new JdkHttpClient(HttpClientConfiguration.builder("apiKey")
+                .withRetryPolicy(RetryPolicy.builder().withInitialBackoffMillis(1L).build())
+                .build());
+        Response response = retryingClient.sendAsync(retryingClient.prepareAuthenticatedRequest(HOST, port(), GET, "flaky").build()).get(10, SECONDS);
+        assertThat(response.statusCode(), equalTo(200));
+        assertThat(flakyCalls.get(), equalTo(3));
+    }
+
+    @Test
+    public void sendTimeoutTest() {
+        assertThrows(DeadlineExceededException.class, () -> client.send(client.prepareAuthenticatedRequest(HOST, port(), GET, "slow")
+                .withTimeoutMillis(100L)
+                .build()));
+    }
+
+    @Test
+    public void sendBodyTimeoutTest() {
+        assertThrows(DeadlineExceededException.class, () -> client.send(client.prepareAuthenticatedRequest(HOST, port(), GET, "trickle")
+                .withTimeoutMillis(300L)
+                .build()));
+        var future = client.sendAsync(client.prepareAuthenticatedRequest(HOST, port(), GET, "trickle")
+                .withTimeoutMillis(300L)
+                .build());
+        var exception = assertThrows(ExecutionException.class, () -> future.get(10, SECONDS));
+        assertThat(exception.getCause(), instanceOf(DeadlineExceededException.class));
+    }
+
+    @Test
+    public void sendQueryParamsTest() throws IOException {
+        Response response = client.send(client.prepareAuthenticatedRequest(HOST, port(), GET, "query")
+                .withQueryParam("q", "a b&c")
+                .withQueryParam("page", "1")
+                .build());
+        assertThat(new String(response.body().readAllBytes(), UTF_8), equalTo("q=a%20b%26c&page=1"));
+    }
+
+    @Test
+    public void sendNonAsciiTest() throws IOException {
+        Response response = client.send(client.prepareAuthenticatedRequest(HOST, port(), POST, "echo")
+                .withBody("\u00f1and\u00fa \u20ac")
+                .build());
+        assertThat(response.body().readAllBytes(), equalTo("\u00f1and\u00fa \u20ac".getBytes(UTF_8)));
+        response = client.send(client.prepareAuthenticatedRequest(HOST, port(), GET, "query")
+                .withQueryParam("q", "caf\u00e9")
+                .withQueryParam("escaped", "a%20b")
+                .build());
+        assertThat(new String(response.body().readAllBytes(), UTF_8), equalTo("q=caf%C3%A9&escaped=a%20b"));
+    }
+
+    @Test
+    public void sendRenewedTokenTest() throws IOException {
+        var fetches = new AtomicInteger();
+        var renewingClient = new JdkHttpClient(HttpClientConfiguration.builder(new RefreshingTokenProvider(() -> new AccessToken("token-" + fetches.incrementAndGet()), 0)).build());
+        Response response = renewingClient.send(renewingClient.prepareAuthenticatedRequest(HOST, port(), POST, "secured")
+                .withBody("{\"value\":1}")
+                .build());
+        assertThat(response.statusCode(), equalTo(200));
+        assertThat(new String(response.body().readAllBytes(), UTF_8), equalTo("{\"value\":1}"));
+        assertThat(fetches.get(), equalTo(2));
+        assertThrows(UnauthorizedException.class, () -> client.send(client.prepareAuthenticatedRequest(HOST, port(), GET, "secured").build()));
+    }
+
+    private Integer port() {
+        return server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,65 @@
+package io.polyapi.commons.internal.http;
+
+import com.sun.net.httpserver.HttpServer;
+import io.polyapi.commons.api.metrics.PolyMetrics;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Test class for {@link RateLimitInterceptor}.
+ */
+public class RateLimitInterceptorTest {
+    private HttpServer server;
+    private AtomicInteger throttledCalls;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        throttledCalls = new AtomicInteger();
+        server.createContext("/throttled", exchange -> {
+            if (throttledCalls.incrementAndGet() == 1) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                exchange.sendResponseHeaders(429, -1);
+            } else {
+                exchange.sendResponseHeaders(200, -1);
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void interceptRetriedThrottlingTest() throws IOException {
+        // The clock doesn't move, so the pause requested by the server is still visible after the call.
+        var rateLimiter = new RateLimiter(null, null, Map.of(), () -> 0L);
+        var client = new OkHttpClient.Builder()
+                .addInterceptor(new RetryInterceptor(RetryPolicy.builder().withInitialBackoffMillis(1L).build(), PolyMetrics.NOOP))
+                .addInterceptor(new RateLimitInterceptor(rateLimiter))
+                .build();
+        try (var response = client.newCall(new Request.Builder()
+                .url("http://localhost:" + server.getAddress().getPort() + "/throttled")
+                .build()).execute()) {
+            assertThat(response.code(), equalTo(200));
+        }
+        assertThat(throttledCalls.get(), equalTo(2));
+        assertThat(rateLimiter.reserve(List.of("throttled")), equalTo(SECONDS.toNanos(1)));
+    }
+}
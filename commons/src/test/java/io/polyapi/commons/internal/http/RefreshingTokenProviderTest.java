@@ -0,0 +1,63 @@
+package io.polyapi.commons.internal.http;
+
+import io.polyapi.commons.api.http.AccessToken;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Test class for {@link RefreshingTokenProvider}.
+ */
+public class RefreshingTokenProviderTest {
+
+    @Test
+    public void getTokenAsHeaderConcurrentTest() throws Exception {
+        var fetches = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        try (var provider = new RefreshingTokenProvider(() -> {
+            try {
+                release.await(5, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new AccessToken("token-" + fetches.incrementAndGet());
+        }, 0)) {
+            var calls = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(provider::getTokenAsHeader))
+                    .toList();
+            Thread.sleep(100);
+            release.countDown();
+            for (var call : calls) {
+                assertThat(call.get(5, SECONDS), equalTo("Bearer token-1"));
+            }
+            assertThat(provider.getToken(), equalTo("token-1"));
+            assertThat(fetches.get(), equalTo(1));
+            assertThat(provider.renew("Bearer token-1"), equalTo(true));
+            assertThat(provider.renew("Bearer token-1"), equalTo(true));
+            assertThat(provider.getTokenAsHeader(), equalTo("Bearer token-2"));
+            assertThat(fetches.get(), equalTo(2));
+        }
+    }
+
+    @Test
+    public void backgroundRefreshTest() throws InterruptedException {
+        var fetches = new AtomicInteger();
+        try (var provider = new RefreshingTokenProvider(() -> new AccessToken("token-" + fetches.incrementAndGet(), Instant.now().plusMillis(60000)), 59900)) {
+            assertThat(provider.getToken(), equalTo("token-1"));
+            // The source is called before the new token is stored, so the loop waits for the token itself.
+            for (int i = 0; i < 50 && provider.getToken().equals("token-1"); i++) {
+                Thread.sleep(100);
+            }
+            assertThat(fetches.get() >= 2, equalTo(true));
+            assertThat(provider.getToken().equals("token-1"), equalTo(false));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.polyapi.commons.internal.http;
+
+import io.polyapi.commons.api.service.PolyApiService;
+import io.polyapi.commons.internal.json.JacksonJsonParser;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.ResponseBody;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import static io.polyapi.commons.api.http.HttpMethod.POST;
+
+/**
+ * Measures the bytes allocated per request while building it, and while sending it through a {@link PolyApiService} and
+ * the {@link DefaultHttpClient}. The OkHttp client answers from an interceptor without touching the network, so only
+ * the work of the client library is measured. It is not part of the test suite, as its results depend on the JVM. Run
+ * it with the test classpath, optionally with the amount of requests as argument:
+ * <pre>{@code
+ * java -cp <test classpath> io.polyapi.commons.internal.http.RequestAllocationComparison 200000
+ * }</pre>
+ */
+public class RequestAllocationComparison {
+    private static final String HOST = "https://na1.polyapi.io";
+    private static final String PATH = "functions/server/aa5bd8a6-2b1e-4a2a-9d5c-b8a0e3a5e4f1/execute";
+
+    public static void main(String[] args) {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        var okHttpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> new okhttp3.Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_2)
+                        .code(200)
+                        .message("OK")
+                        .header("Content-Type", "application/json")
+                        .body(ResponseBody.create("{\"value\":1}", MediaType.get("application/json")))
+                        .build())
+                .build();
+        var client = new DefaultHttpClient(okHttpClient, HttpClientConfiguration.builder("apiKey").build());
+        var service = new PolyApiService(client, new JacksonJsonParser(), HOST, 443);
+        Map<String, Object> body = Map.of("name", "value", "amount", 3);
+        Map<String, List<String>> headers = Map.of("X-Custom", List.of("value"));
+        Map<String, List<String>> queryParams = Map.of("page", List.of("1"));
+        Runnable build = () -> client.prepareAuthenticatedRequest(HOST, 443, POST, PATH)
+                .withHeaders(headers)
+                .withQueryParams(queryParams)
+                .withBody("{\"name\":\"value\",\"amount\":3}")
+                .build()
+                .getUrl();
+        Runnable send = () -> service.post(PATH, headers, queryParams, body, Map.class);
+        System.out.printf("%-6s %14s%n", "phase", "bytes/request");
+        System.out.printf("%-6s %14d%n", "build", measure(build, requests));
+        System.out.printf("%-6s %14d%n", "send", measure(send, requests));
+    }
+
+    private static long measure(Runnable call, int requests) {
+        // Warm up the JIT so that escape analysis removes what it can before measuring.
+        for (int i = 0; i < requests; i++) {
+            call.run();
+        }
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < requests; i++) {
+            call.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / requests;
+    }
+}
@@ -0,0 +1,48 @@
+package io.polyapi.commons.internal.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Test class for {@link TokenBucket}.
+ */
+public class TokenBucketTest {
+
+    @Test
+    public void reserveTest() {
+        var clock = new AtomicLong();
+        var bucket = new TokenBucket(10, 2, clock::get);
+        assertThat(bucket.reserve(), equalTo(0L));
+        assertThat(bucket.reserve(), equalTo(0L));
+        assertThat(bucket.reserve(), equalTo(MILLISECONDS.toNanos(100)));
+        assertThat(bucket.reserve(), equalTo(MILLISECONDS.toNanos(200)));
+        clock.addAndGet(MILLISECONDS.toNanos(200));
+        assertThat(bucket.reserve(), equalTo(MILLISECONDS.toNanos(100)));
+    }
+
+    @Test
+    public void onThrottledTest() {
+        var clock = new AtomicLong();
+        var bucket = new TokenBucket(10, 1, clock::get);
+        bucket.onThrottled();
+        assertThat(bucket.getRate(), equalTo(5D));
+        bucket.onSuccess();
+        assertThat(bucket.getRate(), equalTo(5.1D));
+    }
+
+    @Test
+    public void pauseTest() {
+        var clock = new AtomicLong();
+        var bucket = new TokenBucket(0, 1, clock::get);
+        assertThat(bucket.reserve(), equalTo(0L));
+        bucket.pause(MILLISECONDS.toNanos(500));
+        assertThat(bucket.reserve(), equalTo(MILLISECONDS.toNanos(500)));
+        clock.addAndGet(MILLISECONDS.toNanos(500));
+        assertThat(bucket.reserve(), equalTo(0L));
+    }
+}
@@ -0,0 +1,17 @@
+package io.polyapi.client.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Error of one of the calls of a parallel execution.
+ *
+ * @param <I> The type of the inputs.
+ */
+@Getter
+@AllArgsConstructor
+public class ParallelError<I> {
+  private final int index;
+  private final I input;
+  private final Throwable error;
+}
@@ -0,0 +1,25 @@
+package io.polyapi.client.api;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Options of a parallel execution of a function over a set of inputs.
+ */
+@Getter
+@Setter
+public class ParallelOptions {
+  /**
+   * Maximum amount of calls in flight. By default, the maximum amount of concurrent requests per host of the HTTP client.
+   */
+  private Integer concurrency;
+  /**
+   * Whether the results are returned in the order of the inputs or in the order they complete. By default, they are
+   * returned in the order of the inputs.
+   */
+  private Boolean ordered;
+  /**
+   * Whether the execution stops on the first error or collects the errors and continues. By default, it stops.
+   */
+  private Boolean failFast;
+}
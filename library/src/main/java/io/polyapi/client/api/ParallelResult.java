@@ -0,0 +1,21 @@
+package io.polyapi.client.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Result of a parallel execution of a function over a set of inputs. If the results are ordered, the failed inputs have
+ * a null result in their position. Otherwise, only the successful results are included, in the order they completed.
+ *
+ * @param <I> The type of the inputs.
+ * @param <O> The type of the results.
+ */
+@Getter
+@AllArgsConstructor
+public class ParallelResult<I, O> {
+  private final List<O> results;
+  private final List<ParallelError<I>> errors;
+  private final ParallelStats stats;
+}
@@ -0,0 +1,21 @@
+package io.polyapi.client.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Throughput and latency of a parallel execution. Latencies are measured from the start of each call to its completion.
+ */
+@Getter
+@AllArgsConstructor
+public class ParallelStats {
+  private final int calls;
+  private final int succeeded;
+  private final int failed;
+  private final long elapsedMillis;
+  private final double callsPerSecond;
+  private final double averageLatencyMillis;
+  private final double p50LatencyMillis;
+  private final double p99LatencyMillis;
+  private final double maxLatencyMillis;
+}
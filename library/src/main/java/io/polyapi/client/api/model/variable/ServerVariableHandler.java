@@ -1,10 +1,32 @@
 package io.polyapi.client.api.model.variable;
 
+import io.polyapi.client.api.OnUpdateListener;
+import io.polyapi.client.api.OnUpdateOptions;
+import io.polyapi.client.api.VariableChangeEvent;
 import io.polyapi.client.api.model.function.PolyFunction;
 
+import java.util.function.Consumer;
+
 public interface ServerVariableHandler<T> extends PolyFunction {
 
   T inject();
 
   void update(T entity);
+
+  /**
+   * Listens to the updates and deletions of the variable.
+   *
+   * @param callback The {@link Consumer} of the change events.
+   * @return OnUpdateListener The listener, which can be unregistered to stop listening.
+   */
+  OnUpdateListener onUpdate(Consumer<VariableChangeEvent<T>> callback);
+
+  /**
+   * Listens to the changes of the variable that match the options.
+   *
+   * @param callback The {@link Consumer} of the change events.
+   * @param options  The options that filter the events by type or secrecy.
+   * @return OnUpdateListener The listener, which can be unregistered to stop listening.
+   */
+  OnUpdateListener onUpdate(Consumer<VariableChangeEvent<T>> callback, OnUpdateOptions options);
 }
@@ -0,0 +1,10 @@
+package io.polyapi.client.error.invocation.isolation;
+
+/**
+ * Exception thrown when a function is called while it already has the maximum amount of calls in flight.
+ */
+public class BulkheadFullException extends FunctionIsolationException {
+    public BulkheadFullException(String functionId) {
+        super("Function with ID %s has reached its maximum amount of concurrent calls. The call was not sent.", functionId);
+    }
+}
@@ -0,0 +1,10 @@
+package io.polyapi.client.error.invocation.isolation;
+
+/**
+ * Exception thrown when a function is called while its circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends FunctionIsolationException {
+    public CircuitBreakerOpenException(String functionId) {
+        super("Circuit breaker of function with ID %s is open. The call was not sent.", functionId);
+    }
+}
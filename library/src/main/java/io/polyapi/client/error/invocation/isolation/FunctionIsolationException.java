@@ -0,0 +1,20 @@
+package io.polyapi.client.error.invocation.isolation;
+
+import io.polyapi.client.error.invocation.PolyInvocationException;
+import lombok.Getter;
+
+import static java.lang.String.format;
+
+/**
+ * Parent class of the exceptions thrown when a call to a Poly function is rejected without being sent to protect the
+ * rest of the calls of the process.
+ */
+@Getter
+public class FunctionIsolationException extends PolyInvocationException {
+    private final String functionId;
+
+    public FunctionIsolationException(String message, String functionId) {
+        super(format(message, functionId), null);
+        this.functionId = functionId;
+    }
+}
@@ -0,0 +1,35 @@
+package io.polyapi.client.internal.model;
+
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe holder that creates its value on first access and returns the same instance afterwards.
+ * It is used by the generated contexts so that the proxies of the functions are created only when they are used.
+ *
+ * @param <T> The type of the held value.
+ */
+public class Lazy<T> implements Supplier<T> {
+    private Supplier<T> supplier;
+    private volatile T value;
+
+    public Lazy(Supplier<T> supplier) {
+        this.supplier = supplier;
+    }
+
+    @Override
+    public T get() {
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = supplier.get();
+                    value = result;
+                    // The supplier is no longer needed, so it's released along with anything it references.
+                    supplier = null;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -1,5 +1,7 @@
 package io.polyapi.client.internal.model;
 
+import io.polyapi.client.api.ParallelOptions;
+import io.polyapi.client.api.ParallelResult;
 import io.polyapi.client.api.model.function.AudienceTokenAuthFunction;
 import io.polyapi.client.api.model.function.PolyApiFunction;
 import io.polyapi.client.api.model.function.PolyCustomFunction;
@@ -9,59 +11,125 @@ import io.polyapi.client.api.model.function.TokenAuthFunction;
 import io.polyapi.client.api.model.variable.ServerVariableHandler;
 import io.polyapi.client.api.model.websocket.PolyTrigger;
 import io.polyapi.client.internal.proxy.PolyProxyFactory;
-import io.polyapi.client.internal.service.InvocationServiceImpl;
-import io.polyapi.client.internal.service.VariableInjectionServiceImpl;
 import io.polyapi.commons.api.error.PolyApiException;
-import io.polyapi.commons.api.http.HttpClient;
-import io.polyapi.commons.api.json.JsonParser;
 import io.polyapi.commons.api.model.PolyErrorEvent;
 import io.polyapi.commons.api.websocket.Handle;
 import io.polyapi.commons.api.websocket.WebSocketClient;
-import io.polyapi.commons.internal.http.DefaultHttpClient;
-import io.polyapi.commons.internal.http.HardcodedTokenProvider;
-import io.polyapi.commons.internal.http.HttpClientConfiguration;
-import io.polyapi.commons.internal.json.JacksonJsonParser;
-import io.polyapi.commons.internal.websocket.SocketIOWebSocketClient;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
-public class PolyContext {
+public class PolyContext implements AutoCloseable {
     private final PolyProxyFactory proxyFactory;
     private final WebSocketClient webSocketClient;
+    private final PolyRuntime runtime;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
 
+    /**
+     * Creates a context configured by the 'poly.properties' file in the classpath. All the contexts created this way
+     * share the same {@link PolyRuntime}.
+     */
     public PolyContext() {
-        this(Optional.of(new Properties())
-                .map(properties -> {
-                    try {
-                        properties.load(PolyContext.class.getResourceAsStream("/poly.properties"));
-                        return new PolyContextConfiguration(properties);
-                    } catch (IOException e) {
-                        throw new PolyApiException(e);
-                    }
-                }).orElseThrow(PolyApiException::new), new JacksonJsonParser());
+        this(DefaultConfigurationHolder.CONFIGURATION);
     }
 
-    private PolyContext(PolyContextConfiguration config, JsonParser jsonParser) {
-        this(config.getHost(), config.getPort(), config.getClientId(), new DefaultHttpClient(HttpClientConfiguration.builder(config.getApiKey())
-                .withConnectTimeoutMillis(config.getConnectionTimeoutMillis())
-                .withReadTimeoutMillis(config.getReadTimeoutMillis())
-                .withWriteTimeoutMillis(config.getWriteTimeoutMillis())
-                .build()), new SocketIOWebSocketClient(config.getUrl(), config.getClientId(), new HardcodedTokenProvider(config.getApiKey()), jsonParser, config.getConnectionTimeoutMillis()), jsonParser);
+    /**
+     * Creates a context for a specific configuration. Contexts with the same configuration share the same
+     * {@link PolyRuntime}.
+     *
+     * @param configuration The configuration of the context.
+     */
+    public PolyContext(PolyContextConfiguration configuration) {
+        this(PolyRuntime.acquire(configuration));
     }
 
-    private PolyContext(String host, Integer port, String clientId, HttpClient httpClient, WebSocketClient webSocketClient, JsonParser jsonParser) {
-        this(new PolyProxyFactory(new InvocationServiceImpl(httpClient, jsonParser, host, port, clientId, webSocketClient, new VariableInjectionServiceImpl()), webSocketClient), webSocketClient);
+    private PolyContext(PolyRuntime runtime) {
+        this.runtime = runtime;
+        this.proxyFactory = runtime.getProxyFactory();
+        this.webSocketClient = runtime.getWebSocketClient();
     }
 
     public PolyContext(PolyProxyFactory proxyFactory, WebSocketClient webSocketClient) {
+        this.runtime = null;
         this.proxyFactory = proxyFactory;
         this.webSocketClient = webSocketClient;
     }
 
+    /**
+     * Releases the reference of this context to its {@link PolyRuntime}. Subcontexts don't hold a reference of their own,
+     * so closing them does nothing.
+     */
+    @Override
+    public void close() {
+        if (runtime != null && closed.compareAndSet(false, true)) {
+            runtime.close();
+        }
+    }
+
+    /**
+     * Retrieves the values of the non-secret server variables of this context and its subcontexts, and keeps them in
+     * memory. Reading them afterward doesn't require a request to the server until they change.
+     */
+    public void prefetch() {
+        List<Class<?>> serverVariableHandlerInterfaces = new ArrayList<>();
+        collectServerVariables(serverVariableHandlerInterfaces);
+        proxyFactory.prefetchServerVariables(serverVariableHandlerInterfaces);
+    }
+
+    /**
+     * Adds the interfaces of the non-secret server variables of this context and its subcontexts to a list. This
+     * method is overridden by the generated contexts.
+     *
+     * @param serverVariableHandlerInterfaces The list to add the interfaces to.
+     */
+    public void collectServerVariables(List<Class<?>> serverVariableHandlerInterfaces) {
+    }
+
+    /**
+     * Executes a function, such as a generated Poly function, for each of a set of inputs with bounded concurrency. The
+     * inputs are read only as calls complete, so the stream can be larger than the memory. By default, the amount of
+     * concurrent calls is the maximum amount of concurrent requests per host of the HTTP client.
+     * <pre>{@code
+     * var result = Poly.context.parallelMap(records.stream(), Poly.context::process, new ParallelOptions());
+     * }</pre>
+     *
+     * @param inputs   The inputs of the function.
+     * @param function The function to execute.
+     * @param options  The concurrency, ordering and error handling of the execution. It can be null.
+     * @param <I>      The type of the inputs.
+     * @param <O>      The type of the results.
+     * @return ParallelResult The results, errors and stats of the execution.
+     * @throws PolyApiException Thrown when a call fails and the execution is set to fail fast.
+     */
+    public <I, O> ParallelResult<I, O> parallelMap(Stream<I> inputs, Function<I, O> function, ParallelOptions options) {
+        return proxyFactory.createParallelMapper().map(inputs.iterator(), function, options);
+    }
+
+    public <I, O> ParallelResult<I, O> parallelMap(Iterable<I> inputs, Function<I, O> function, ParallelOptions options) {
+        return proxyFactory.createParallelMapper().map(inputs.iterator(), function, options);
+    }
+
+    /**
+     * Same as {@link #parallelMap(Stream, Function, ParallelOptions)}, for non-blocking functions such as the
+     * asynchronous variants of the generated server and API functions.
+     */
+    public <I, O> ParallelResult<I, O> parallelMapAsync(Stream<I> inputs, Function<I, CompletableFuture<O>> function, ParallelOptions options) {
+        return proxyFactory.createParallelMapper().mapAsync(inputs.iterator(), function, options);
+    }
+
+    public <I, O> ParallelResult<I, O> parallelMapAsync(Iterable<I> inputs, Function<I, CompletableFuture<O>> function, ParallelOptions options) {
+        return proxyFactory.createParallelMapper().mapAsync(inputs.iterator(), function, options);
+    }
+
     protected <T extends PolyServerFunction> T createServerFunctionProxy(Class<T> polyInterface) {
         return proxyFactory.createServerFunctionProxy(polyInterface);
     }
@@ -111,4 +179,19 @@ public class PolyContext {
     protected Handle addErrorListener(String path, Consumer<PolyErrorEvent> errorListener) {
         return webSocketClient.registerErrorHandler(path, errorListener);
     }
+
+    /**
+     * Lazy holder of the configuration loaded from 'poly.properties', so that the file is read only once.
+     */
+    private static class DefaultConfigurationHolder {
+        private static final PolyContextConfiguration CONFIGURATION = Optional.of(new Properties())
+                .map(properties -> {
+                    try {
+                        properties.load(PolyContext.class.getResourceAsStream("/poly.properties"));
+                        return new PolyContextConfiguration(properties);
+                    } catch (IOException e) {
+                        throw new PolyApiException(e);
+                    }
+                }).orElseThrow(PolyApiException::new);
+    }
 }
@@ -1,19 +1,36 @@
 package io.polyapi.client.internal.model;
 
+import io.polyapi.commons.internal.http.HttpTransport;
+
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.function.Function;
 
+import static io.polyapi.commons.internal.http.HttpClientConfiguration.DEFAULT_KEEP_ALIVE_MILLIS;
+import static io.polyapi.commons.internal.http.HttpClientConfiguration.DEFAULT_MAX_IDLE_CONNECTIONS;
+import static io.polyapi.commons.internal.http.HttpClientConfiguration.DEFAULT_MAX_REQUESTS;
+import static io.polyapi.commons.internal.http.HttpClientConfiguration.DEFAULT_MAX_REQUESTS_PER_HOST;
+import static io.polyapi.commons.internal.http.RetryPolicy.DEFAULT_INITIAL_BACKOFF_MILLIS;
+import static io.polyapi.commons.internal.http.RetryPolicy.DEFAULT_MAX_ATTEMPTS;
+import static io.polyapi.commons.internal.http.RetryPolicy.DEFAULT_MAX_BACKOFF_MILLIS;
 import static java.lang.String.format;
 import static java.util.function.Function.identity;
 
 public class PolyContextConfiguration {
     private static final Long DEFAULT_TIMEOUT_VALUES = 30000L;
+    private static final String FUNCTION_PROPERTY_PREFIX = "io.polyapi.functions.";
+    private static final String FUNCTION_CACHE_TTL_PROPERTY_SUFFIX = ".cache.ttl";
+    private static final String FUNCTION_RATE_LIMIT_PROPERTY_SUFFIX = ".ratelimit.rate";
+    private static final String FUNCTION_BULKHEAD_MAX_PROPERTY_SUFFIX = ".bulkhead.max";
+    private static final String FUNCTION_TIMEOUT_PROPERTY_SUFFIX = ".call.timeout";
 
     private final Properties properties;
 
     public PolyContextConfiguration(Properties properties) {
-        this.properties = properties;
+        this.properties = new Properties();
+        this.properties.putAll(properties);
     }
 
     public String getUrl() {
@@ -32,6 +49,14 @@ public class PolyContextConfiguration {
         return getProperty("io.polyapi.api.key");
     }
 
+    public Long getTokenRefreshAheadMillis() {
+        return getProperty("io.polyapi.api.token.refresh.ahead", Long::valueOf, 60000L);
+    }
+
+    public HttpTransport getHttpTransport() {
+        return getProperty("io.polyapi.http.client", value -> HttpTransport.valueOf(value.trim().toUpperCase()), HttpTransport.OKHTTP);
+    }
+
     public Long getConnectionTimeoutMillis() {
         return getProperty("io.polyapi.http.timeout.connection", Long::valueOf, DEFAULT_TIMEOUT_VALUES);
     }
@@ -44,10 +69,198 @@ public class PolyContextConfiguration {
         return getProperty("io.polyapi.http.timeout.write", Long::valueOf, DEFAULT_TIMEOUT_VALUES);
     }
 
+    public Boolean getStreamingResponses() {
+        return getProperty("io.polyapi.http.response.streaming", Boolean::valueOf, false);
+    }
+
+    public Integer getMaxIdleConnections() {
+        return getProperty("io.polyapi.http.pool.idle.max", Integer::valueOf, DEFAULT_MAX_IDLE_CONNECTIONS);
+    }
+
+    public Long getKeepAliveMillis() {
+        return getProperty("io.polyapi.http.pool.keepalive", Long::valueOf, DEFAULT_KEEP_ALIVE_MILLIS);
+    }
+
+    public Integer getMaxRequests() {
+        return getProperty("io.polyapi.http.requests.max", Integer::valueOf, DEFAULT_MAX_REQUESTS);
+    }
+
+    public Integer getMaxRequestsPerHost() {
+        return getProperty("io.polyapi.http.requests.host.max", Integer::valueOf, DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    public Boolean getHttp2Enabled() {
+        return getProperty("io.polyapi.http.http2.enabled", Boolean::valueOf, true);
+    }
+
+    public Integer getTlsSessionCacheSize() {
+        return getProperty("io.polyapi.http.tls.session.cache.size", Integer::valueOf, null);
+    }
+
+    public Integer getTlsSessionTimeoutSeconds() {
+        return getProperty("io.polyapi.http.tls.session.timeout", Integer::valueOf, null);
+    }
+
+    public Integer getRetryMaxAttempts() {
+        return getProperty("io.polyapi.http.retry.attempts", Integer::valueOf, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    public Long getRetryInitialBackoffMillis() {
+        return getProperty("io.polyapi.http.retry.backoff.initial", Long::valueOf, DEFAULT_INITIAL_BACKOFF_MILLIS);
+    }
+
+    public Long getRetryMaxBackoffMillis() {
+        return getProperty("io.polyapi.http.retry.backoff.max", Long::valueOf, DEFAULT_MAX_BACKOFF_MILLIS);
+    }
+
+    public Integer getRetryBudgetTokens() {
+        return getProperty("io.polyapi.http.retry.budget.tokens", Integer::valueOf, 10);
+    }
+
+    public Double getRetryBudgetRatio() {
+        return getProperty("io.polyapi.http.retry.budget.ratio", Double::valueOf, 0.1);
+    }
+
+    public Boolean getCoalesceReads() {
+        return getProperty("io.polyapi.http.requests.coalesce", Boolean::valueOf, false);
+    }
+
+    public Boolean getDeepVariableInjection() {
+        return getProperty("io.polyapi.variables.injection.deep", Boolean::valueOf, false);
+    }
+
+    public Long getVariableCacheTtlMillis() {
+        return getProperty("io.polyapi.variables.cache.ttl", Long::valueOf, 0L);
+    }
+
+    public Integer getVariableCacheMaxSize() {
+        return getProperty("io.polyapi.variables.cache.size", Integer::valueOf, 1000);
+    }
+
+    /**
+     * Retrieves the time to live in milliseconds of the results of the functions that are cached, configured with
+     * properties like 'io.polyapi.functions.{function ID}.cache.ttl'.
+     *
+     * @return Map The times to live indexed by function ID.
+     */
+    public Map<String, Long> getFunctionCacheTtls() {
+        return getFunctionProperties(FUNCTION_CACHE_TTL_PROPERTY_SUFFIX, Long::valueOf);
+    }
+
+    public Double getRateLimit() {
+        return getProperty("io.polyapi.http.ratelimit.rate", Double::valueOf, null);
+    }
+
+    public Integer getRateLimitBurst() {
+        return getProperty("io.polyapi.http.ratelimit.burst", Integer::valueOf, 1);
+    }
+
+    /**
+     * Retrieves the maximum amount of requests per second of the functions that are rate limited, configured with
+     * properties like 'io.polyapi.functions.{function ID}.ratelimit.rate'.
+     *
+     * @return Map The rates indexed by function ID.
+     */
+    public Map<String, Double> getFunctionRateLimits() {
+        return getFunctionProperties(FUNCTION_RATE_LIMIT_PROPERTY_SUFFIX, Double::valueOf);
+    }
+
+    /**
+     * Retrieves the default timeouts in milliseconds of the calls to functions, configured by function ID or by
+     * context with properties like 'io.polyapi.functions.{function ID or context}.call.timeout'.
+     *
+     * @return Map The timeouts indexed by function ID or context.
+     */
+    public Map<String, Long> getFunctionTimeouts() {
+        return getFunctionProperties(FUNCTION_TIMEOUT_PROPERTY_SUFFIX, Long::valueOf);
+    }
+
+    public Integer getFunctionCacheMaxSize() {
+        return getProperty("io.polyapi.functions.cache.size", Integer::valueOf, 1000);
+    }
+
+    public Long getBatchWindowMillis() {
+        return getProperty("io.polyapi.functions.batch.window", Long::valueOf, 0L);
+    }
+
+    public Integer getBatchMaxSize() {
+        return getProperty("io.polyapi.functions.batch.size", Integer::valueOf, 100);
+    }
+
+    public Integer getBatchParallelism() {
+        return getProperty("io.polyapi.functions.batch.parallelism", Integer::valueOf, DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    public String getBatchPath() {
+        return getProperty("io.polyapi.functions.batch.path");
+    }
+
+    public Integer getAsyncThreads() {
+        return getProperty("io.polyapi.functions.async.threads", Integer::valueOf, null);
+    }
+
+    public Long getAsyncTimeoutMillis() {
+        return getProperty("io.polyapi.functions.async.timeout", Long::valueOf, 0L);
+    }
+
+    public Integer getCircuitBreakerWindowSize() {
+        return getProperty("io.polyapi.functions.circuitbreaker.window", Integer::valueOf, 0);
+    }
+
+    public Integer getCircuitBreakerMinimumCalls() {
+        return getProperty("io.polyapi.functions.circuitbreaker.calls.min", Integer::valueOf, 10);
+    }
+
+    public Double getCircuitBreakerFailureRateThreshold() {
+        return getProperty("io.polyapi.functions.circuitbreaker.failure.rate", Double::valueOf, 50D);
+    }
+
+    public Double getCircuitBreakerSlowCallRateThreshold() {
+        return getProperty("io.polyapi.functions.circuitbreaker.slow.rate", Double::valueOf, 100D);
+    }
+
+    public Long getCircuitBreakerSlowCallDurationMillis() {
+        return getProperty("io.polyapi.functions.circuitbreaker.slow.duration", Long::valueOf, 10000L);
+    }
+
+    public Long getCircuitBreakerOpenDurationMillis() {
+        return getProperty("io.polyapi.functions.circuitbreaker.open.duration", Long::valueOf, 30000L);
+    }
+
+    public Integer getCircuitBreakerHalfOpenCalls() {
+        return getProperty("io.polyapi.functions.circuitbreaker.halfopen.calls", Integer::valueOf, 5);
+    }
+
+    public Integer getBulkheadMaxConcurrentCalls() {
+        return getProperty("io.polyapi.functions.bulkhead.max", Integer::valueOf, 0);
+    }
+
+    /**
+     * Retrieves the maximum amount of concurrent calls of the functions that override the default one, configured
+     * with properties like 'io.polyapi.functions.{function ID}.bulkhead.max'.
+     *
+     * @return Map The maximum amounts of concurrent calls indexed by function ID.
+     */
+    public Map<String, Integer> getFunctionBulkheadMaxConcurrentCalls() {
+        return getFunctionProperties(FUNCTION_BULKHEAD_MAX_PROPERTY_SUFFIX, Integer::valueOf);
+    }
+
+    public Long getBulkheadMaxWaitMillis() {
+        return getProperty("io.polyapi.functions.bulkhead.wait", Long::valueOf, 0L);
+    }
+
     public String getClientId() {
         return getProperty("io.polyapi.client.id");
     }
 
+    private <T> Map<String, T> getFunctionProperties(String suffix, Function<String, T> conversionFunction) {
+        Map<String, T> result = new HashMap<>();
+        properties.stringPropertyNames().stream()
+                .filter(key -> key.length() > FUNCTION_PROPERTY_PREFIX.length() + suffix.length() && key.startsWith(FUNCTION_PROPERTY_PREFIX) && key.endsWith(suffix))
+                .forEach(key -> result.put(key.substring(FUNCTION_PROPERTY_PREFIX.length(), key.length() - suffix.length()), conversionFunction.apply(properties.getProperty(key))));
+        return result;
+    }
+
     private String getProperty(String key) {
         return this.getProperty(key, identity(), null);
     }
@@ -57,4 +270,16 @@ public class PolyContextConfiguration {
                 .map(conversionFunction)
                 .orElse(defaultValue);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PolyContextConfiguration that)) return false;
+        return properties.equals(that.properties);
+    }
+
+    @Override
+    public int hashCode() {
+        return properties.hashCode();
+    }
 }
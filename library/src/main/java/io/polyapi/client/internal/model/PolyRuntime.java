@@ -0,0 +1,139 @@
+package io.polyapi.client.internal.model;
+
+import io.polyapi.client.internal.proxy.PolyProxyFactory;
+import io.polyapi.client.internal.service.AsyncDispatcher;
+import io.polyapi.client.internal.service.BatchConfiguration;
+import io.polyapi.client.internal.service.FunctionResultCache;
+import io.polyapi.client.internal.service.FunctionTimeouts;
+import io.polyapi.client.internal.service.InvocationService;
+import io.polyapi.client.internal.service.InvocationServiceImpl;
+import io.polyapi.client.internal.service.IsolationConfiguration;
+import io.polyapi.client.internal.service.ServerVariableCache;
+import io.polyapi.client.internal.service.VariableInjectionService;
+import io.polyapi.client.internal.service.VariableInjectionServiceImpl;
+import io.polyapi.commons.api.http.HttpClient;
+import io.polyapi.commons.api.http.TokenProvider;
+import io.polyapi.commons.api.http.TokenSource;
+import io.polyapi.commons.api.json.JsonParser;
+import io.polyapi.commons.api.metrics.PolyMetrics;
+import io.polyapi.commons.api.websocket.WebSocketClient;
+import io.polyapi.commons.internal.http.HardcodedTokenProvider;
+import io.polyapi.commons.internal.http.HttpClientConfiguration;
+import io.polyapi.commons.internal.http.RefreshingTokenProvider;
+import io.polyapi.commons.internal.http.RetryPolicy;
+import io.polyapi.commons.internal.json.JacksonJsonParser;
+import io.polyapi.commons.internal.websocket.SocketIOWebSocketClient;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import static lombok.AccessLevel.NONE;
+
+/**
+ * Process-wide set of resources used by {@link PolyContext}s: HTTP and websocket clients, JSON parser and services.
+ * Runtimes are shared between all the contexts that use the same {@link PolyContextConfiguration} and are reference
+ * counted. Each call to {@link #acquire(PolyContextConfiguration)} must be matched with a call to {@link #close()}, and
+ * the resources are released once the last reference is closed.
+ */
+@Slf4j
+@Getter
+public class PolyRuntime implements AutoCloseable {
+    private static final Map<PolyContextConfiguration, PolyRuntime> runtimes = new HashMap<>();
+
+    private final PolyContextConfiguration configuration;
+    private final JsonParser jsonParser;
+    private final PolyMetrics metrics;
+    private final TokenProvider tokenProvider;
+    private final HttpClient httpClient;
+    private final WebSocketClient webSocketClient;
+    private final VariableInjectionService variableInjectionService;
+    private final InvocationService invocationService;
+    private final AsyncDispatcher asyncDispatcher;
+    private final PolyProxyFactory proxyFactory;
+    @Getter(NONE)
+    private int references;
+
+    private PolyRuntime(PolyContextConfiguration configuration) {
+        log.debug("Creating Poly runtime for host {}.", configuration.getUrl());
+        this.configuration = configuration;
+        this.jsonParser = new JacksonJsonParser();
+        this.metrics = ServiceLoader.load(PolyMetrics.class).findFirst().orElse(PolyMetrics.NOOP);
+        // The HTTP and websocket clients share the provider, so that a token renewed by one is used by the other.
+        this.tokenProvider = ServiceLoader.load(TokenSource.class).findFirst()
+                .<TokenProvider>map(source -> new RefreshingTokenProvider(source, configuration.getTokenRefreshAheadMillis()))
+                .orElseGet(() -> new HardcodedTokenProvider(configuration.getApiKey()));
+        var httpClientConfiguration = HttpClientConfiguration.builder(tokenProvider)
+                .withConnectTimeoutMillis(configuration.getConnectionTimeoutMillis())
+                .withReadTimeoutMillis(configuration.getReadTimeoutMillis())
+                .withWriteTimeoutMillis(configuration.getWriteTimeoutMillis())
+                .withStreamingResponses(configuration.getStreamingResponses())
+                .withMaxIdleConnections(configuration.getMaxIdleConnections())
+                .withKeepAliveMillis(configuration.getKeepAliveMillis())
+                .withMaxRequests(configuration.getMaxRequests())
+                .withMaxRequestsPerHost(configuration.getMaxRequestsPerHost())
+                .withHttp2Enabled(configuration.getHttp2Enabled())
+                .withTlsSessionCacheSize(configuration.getTlsSessionCacheSize())
+                .withTlsSessionTimeoutSeconds(configuration.getTlsSessionTimeoutSeconds())
+                .withRetryPolicy(RetryPolicy.builder()
+                        .withMaxAttempts(configuration.getRetryMaxAttempts())
+                        .withInitialBackoffMillis(configuration.getRetryInitialBackoffMillis())
+                        .withMaxBackoffMillis(configuration.getRetryMaxBackoffMillis())
+                        .withBudget(configuration.getRetryBudgetTokens(), configuration.getRetryBudgetRatio())
+                        .build())
+                .withMetrics(metrics)
+                .withRateLimit(configuration.getRateLimit(), configuration.getRateLimitBurst());
+        configuration.getFunctionRateLimits().forEach(httpClientConfiguration::withRateLimit);
+        this.httpClient = configuration.getHttpTransport().createClient(httpClientConfiguration.build());
+        this.webSocketClient = new SocketIOWebSocketClient(configuration.getUrl(), configuration.getClientId(), tokenProvider, jsonParser, configuration.getConnectionTimeoutMillis());
+        this.variableInjectionService = new VariableInjectionServiceImpl(configuration.getDeepVariableInjection());
+        this.invocationService = new InvocationServiceImpl(httpClient, jsonParser, configuration.getHost(), configuration.getPort(), configuration.getClientId(), webSocketClient, variableInjectionService, new ServerVariableCache(configuration.getVariableCacheTtlMillis(), configuration.getVariableCacheMaxSize()), new FunctionResultCache(configuration.getFunctionCacheTtls(), configuration.getFunctionCacheMaxSize()), new FunctionTimeouts(configuration.getFunctionTimeouts()), new BatchConfiguration(configuration.getBatchWindowMillis(), configuration.getBatchMaxSize(), configuration.getBatchParallelism(), configuration.getBatchPath()), new IsolationConfiguration(configuration.getCircuitBreakerWindowSize(), configuration.getCircuitBreakerMinimumCalls(), configuration.getCircuitBreakerFailureRateThreshold(), configuration.getCircuitBreakerSlowCallRateThreshold(), configuration.getCircuitBreakerSlowCallDurationMillis(), configuration.getCircuitBreakerOpenDurationMillis(), configuration.getCircuitBreakerHalfOpenCalls(), configuration.getBulkheadMaxConcurrentCalls(), configuration.getFunctionBulkheadMaxConcurrentCalls(), configuration.getBulkheadMaxWaitMillis()), configuration.getCoalesceReads(), metrics);
+        this.asyncDispatcher = new AsyncDispatcher(configuration.getAsyncThreads(), configuration.getAsyncTimeoutMillis());
+        this.proxyFactory = new PolyProxyFactory(invocationService, webSocketClient, asyncDispatcher, configuration.getMaxRequestsPerHost());
+    }
+
+    /**
+     * Retrieves the runtime for a configuration, creating it if there isn't one, and increases its reference count.
+     *
+     * @param configuration The configuration of the runtime.
+     * @return PolyRuntime The shared runtime.
+     */
+    public static PolyRuntime acquire(PolyContextConfiguration configuration) {
+        synchronized (runtimes) {
+            PolyRuntime runtime = runtimes.computeIfAbsent(configuration, PolyRuntime::new);
+            runtime.references++;
+            log.debug("Poly runtime for host {} acquired. It has {} references.", configuration.getUrl(), runtime.references);
+            return runtime;
+        }
+    }
+
+    /**
+     * Releases a reference to this runtime. When there are no references left, the clients are closed and the runtime
+     * is discarded so that a new one is created on the next {@link #acquire(PolyContextConfiguration)}.
+     */
+    @Override
+    public void close() {
+        synchronized (runtimes) {
+            if (references == 0) {
+                log.debug("Poly runtime for host {} is already closed.", configuration.getUrl());
+                return;
+            }
+            references--;
+            log.debug("Poly runtime for host {} released. It has {} references.", configuration.getUrl(), references);
+            if (references > 0) {
+                return;
+            }
+            runtimes.remove(configuration);
+        }
+        log.debug("Closing Poly runtime for host {}.", configuration.getUrl());
+        invocationService.close();
+        asyncDispatcher.close();
+        webSocketClient.close();
+        httpClient.close();
+        if (tokenProvider instanceof RefreshingTokenProvider refreshingTokenProvider) {
+            refreshingTokenProvider.close();
+        }
+    }
+}
@@ -7,7 +7,9 @@ import io.polyapi.client.api.model.websocket.PolyTrigger;
 import io.polyapi.client.internal.proxy.invocation.handler.PolyInvocationHandler;
 import io.polyapi.client.internal.proxy.invocation.handler.PolyTriggerInvocationHandler;
 import io.polyapi.client.internal.proxy.invocation.handler.VariInvocationHandler;
+import io.polyapi.client.internal.service.AsyncDispatcher;
 import io.polyapi.client.internal.service.InvocationService;
+import io.polyapi.client.internal.service.ParallelMapper;
 import io.polyapi.commons.api.model.PolyObject;
 import io.polyapi.commons.api.websocket.WebSocketClient;
 
@@ -15,7 +17,10 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import static io.polyapi.commons.internal.http.HttpClientConfiguration.DEFAULT_MAX_REQUESTS_PER_HOST;
 import static java.lang.String.format;
 import static java.lang.reflect.Proxy.newProxyInstance;
 
@@ -25,15 +30,35 @@ public class PolyProxyFactory {
     private final InvocationHandler customFunctionInvocationHandler;
     private final InvocationHandler subresourceAuthFunctionInvocationHandler;
     private final InvocationHandler authFunctionInvocationHandler;
-    private final InvocationHandler serverVariableInvocationHandler;
+    private final VariInvocationHandler serverVariableInvocationHandler;
     private final PolyTriggerInvocationHandler polyTriggerInvocationHandler;
+    private final AsyncDispatcher asyncDispatcher;
+    private final int parallelConcurrency;
 
     public PolyProxyFactory(InvocationService invocationService, WebSocketClient webSocketClient) {
-        this.serverFunctionInvocationHandler = new PolyInvocationHandler(invocationService::invokeServerFunction);
-        this.apiFunctionInvocationHandler = new PolyInvocationHandler(invocationService::invokeApiFunction);
-        this.customFunctionInvocationHandler = new PolyInvocationHandler(invocationService::invokeCustomFunction);
-        this.authFunctionInvocationHandler = new PolyInvocationHandler(invocationService::invokeAuthFunction);
-        this.subresourceAuthFunctionInvocationHandler = new PolyInvocationHandler(invocationService::invokeSubresourceAuthFunction);
+        this(invocationService, webSocketClient, new AsyncDispatcher(ForkJoinPool.commonPool(), 0L));
+    }
+
+    public PolyProxyFactory(InvocationService invocationService, WebSocketClient webSocketClient, AsyncDispatcher asyncDispatcher) {
+        this(invocationService, webSocketClient, asyncDispatcher, DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    /**
+     * Creates the factory.
+     *
+     * @param invocationService   The service that invokes the functions and variables.
+     * @param webSocketClient     The client that receives the events of the triggers.
+     * @param asyncDispatcher     The dispatcher of the asynchronous functions.
+     * @param parallelConcurrency The default maximum amount of calls in flight of the parallel mappers.
+     */
+    public PolyProxyFactory(InvocationService invocationService, WebSocketClient webSocketClient, AsyncDispatcher asyncDispatcher, int parallelConcurrency) {
+        this.asyncDispatcher = asyncDispatcher;
+        this.parallelConcurrency = parallelConcurrency;
+        this.serverFunctionInvocationHandler = new PolyInvocationHandler(invocationService::invokeServerFunction, invocationService::invokeServerFunctionAsync, asyncDispatcher);
+        this.apiFunctionInvocationHandler = new PolyInvocationHandler(invocationService::invokeApiFunction, invocationService::invokeApiFunctionAsync, asyncDispatcher);
+        this.customFunctionInvocationHandler = new PolyInvocationHandler(invocationService::invokeCustomFunction, asyncDispatcher);
+        this.authFunctionInvocationHandler = new PolyInvocationHandler(invocationService::invokeAuthFunction, asyncDispatcher);
+        this.subresourceAuthFunctionInvocationHandler = new PolyInvocationHandler(invocationService::invokeSubresourceAuthFunction, asyncDispatcher);
         this.polyTriggerInvocationHandler = new PolyTriggerInvocationHandler(webSocketClient);
         this.serverVariableInvocationHandler = new VariInvocationHandler(invocationService);
     }
@@ -121,6 +146,24 @@ public class PolyProxyFactory {
         return createProxy(serverVariableInvocationHandler, polyInterface);
     }
 
+    /**
+     * Retrieves the values of a set of server variables concurrently and keeps them in memory.
+     *
+     * @param serverVariableHandlerInterfaces The generated interfaces of the server variables.
+     */
+    public void prefetchServerVariables(List<Class<?>> serverVariableHandlerInterfaces) {
+        serverVariableInvocationHandler.prefetch(serverVariableHandlerInterfaces);
+    }
+
+    /**
+     * Creates a mapper that executes functions over sets of inputs using the same executor as the asynchronous functions.
+     *
+     * @return ParallelMapper The mapper.
+     */
+    public ParallelMapper createParallelMapper() {
+        return new ParallelMapper(asyncDispatcher, parallelConcurrency);
+    }
+
     private <T extends PolyObject> T createProxy(InvocationHandler invocationHandler, Class<T> polyInterface) {
         if (!polyInterface.isInterface()) {
             throw new IllegalArgumentException(format("Poly object defined is not an interface. Only interfaces are expected. Input class is '%s'", polyInterface.getName()));
@@ -0,0 +1,24 @@
+package io.polyapi.client.internal.proxy.invocation.handler;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Functional interface that identifies the non-blocking invocations to be done by the {@link PolyInvocationHandler}.
+ */
+@FunctionalInterface
+public interface AsyncPolyInvocation {
+
+  /**
+   * Starts the invocation without blocking.
+   *
+   * @param invokingClass  The class doing the invocation.
+   * @param polyFunctionId The ID of the function to invoke.
+   * @param body           The body of the invocation.
+   * @param returnType     The expected type return.
+   * @param <T>            The type of the result.
+   * @return CompletableFuture The future result of the invocation.
+   */
+  <T> CompletableFuture<T> invoke(Class<?> invokingClass, String polyFunctionId, Map<String, Object> body, Type returnType);
+}
@@ -1,11 +1,15 @@
 package io.polyapi.client.internal.proxy.invocation.handler;
 
+import io.polyapi.client.api.OnUpdateListener;
+import io.polyapi.client.api.OnUpdateOptions;
+import io.polyapi.client.api.VariableChangeEvent;
 import io.polyapi.client.api.model.variable.RetrievableServerVariableHandler;
 import io.polyapi.client.internal.service.InvocationService;
 
 import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class DefaultServerVariableHandlerImpl<T> implements RetrievableServerVariableHandler<T> {
     private final InvocationService invocationService;
@@ -35,4 +39,14 @@ public class DefaultServerVariableHandlerImpl<T> implements RetrievableServerVar
     public T get() {
         return invocationService.getVariable(id, type);
     }
+
+    @Override
+    public OnUpdateListener onUpdate(Consumer<VariableChangeEvent<T>> callback) {
+        return onUpdate(callback, null);
+    }
+
+    @Override
+    public OnUpdateListener onUpdate(Consumer<VariableChangeEvent<T>> callback, OnUpdateOptions options) {
+        return invocationService.onVariableUpdate(id, type, callback, options);
+    }
 }
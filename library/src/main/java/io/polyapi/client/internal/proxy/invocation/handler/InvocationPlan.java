@@ -0,0 +1,61 @@
+package io.polyapi.client.internal.proxy.invocation.handler;
+
+import io.polyapi.client.api.model.PolyEntity;
+import io.polyapi.client.api.model.PolyMetadata;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static java.lang.String.join;
+
+/**
+ * Immutable description of how a proxied {@link Method} is invoked. It is computed once per method from its
+ * {@link PolyEntity} and {@link PolyMetadata} annotations so that the invocations don't need to use reflection.
+ */
+@Getter
+class InvocationPlan {
+    private final Class<?> invokingClass;
+    private final String functionId;
+    private final String[] paramNames;
+    private final Type returnType;
+    private final boolean async;
+    private final String description;
+    private final int bodyCapacity;
+
+    InvocationPlan(Method method) {
+        this.invokingClass = method.getDeclaringClass();
+        this.functionId = invokingClass.getAnnotation(PolyEntity.class).value();
+        var polyMetadata = invokingClass.getAnnotation(PolyMetadata.class);
+        this.paramNames = polyMetadata.paramNames().clone();
+        this.async = method.getReturnType() == CompletableFuture.class && method.getName().endsWith("Async");
+        this.returnType = async ? futureValueType(method.getGenericReturnType()) : method.getGenericReturnType();
+        this.description = String.format("function with ID '%s', param names [%s] and param types [%s]", functionId, join(",", paramNames), join(",", polyMetadata.paramTypes()));
+        this.bodyCapacity = (int) (paramNames.length / 0.75f) + 1;
+    }
+
+    /**
+     * Binds the arguments of an invocation to the names of the parameters of the function. The resulting map keeps the
+     * order of the parameters.
+     *
+     * @param arguments The arguments of the invocation.
+     * @return Map The body of the invocation.
+     */
+    Map<String, Object> bind(Object[] arguments) {
+        Map<String, Object> body = new LinkedHashMap<>(bodyCapacity);
+        for (int i = 0; i < paramNames.length; i++) {
+            body.put(paramNames[i], arguments[i]);
+        }
+        return body;
+    }
+
+    private static Type futureValueType(Type futureType) {
+        Type result = futureType instanceof ParameterizedType parameterizedType ? parameterizedType.getActualTypeArguments()[0] : Object.class;
+        // Functions without a result are parsed the same way as the synchronous void methods.
+        return result == Void.class ? Void.TYPE : result;
+    }
+}
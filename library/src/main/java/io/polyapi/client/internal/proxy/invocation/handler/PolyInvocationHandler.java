@@ -1,39 +1,52 @@
 package io.polyapi.client.internal.proxy.invocation.handler;
 
-import io.polyapi.client.api.model.PolyEntity;
-import io.polyapi.client.api.model.PolyMetadata;
+import io.polyapi.client.internal.service.AsyncDispatcher;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Arrays;
-
-import static java.util.stream.Collectors.joining;
-import static java.util.stream.IntStream.range;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public class PolyInvocationHandler implements InvocationHandler {
   private final PolyInvocation invocation;
+  private final AsyncPolyInvocation asyncInvocation;
+  private final AsyncDispatcher dispatcher;
+  private final Map<Method, InvocationPlan> plans = new ConcurrentHashMap<>();
+
+  public PolyInvocationHandler(PolyInvocation invocation, AsyncDispatcher dispatcher) {
+    this(invocation, null, dispatcher);
+  }
 
-  public PolyInvocationHandler(PolyInvocation invocation) {
+  /**
+   * Creates a handler whose asynchronous methods, those named with the 'Async' suffix that return a
+   * {@link java.util.concurrent.CompletableFuture}, use a non-blocking invocation. If there is none, the blocking
+   * invocation is run in the executor of the dispatcher.
+   *
+   * @param invocation      The invocation of the synchronous methods.
+   * @param asyncInvocation The invocation of the asynchronous methods. It can be null.
+   * @param dispatcher      The dispatcher that completes the asynchronous methods.
+   */
+  public PolyInvocationHandler(PolyInvocation invocation, AsyncPolyInvocation asyncInvocation, AsyncDispatcher dispatcher) {
     this.invocation = invocation;
+    this.asyncInvocation = asyncInvocation;
+    this.dispatcher = dispatcher;
   }
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] arguments) {
-    Class<?> invokingClass = method.getDeclaringClass();
-    var polyData = invokingClass.getAnnotation(PolyEntity.class);
-    var polyMetadata = method.getDeclaringClass().getAnnotation(PolyMetadata.class);
-    log.debug("Executing method {} in proxy class {}.", method, proxy.getClass().getSimpleName());
-    log.debug("Executing Poly function with ID '{}'.", polyData.value());
-    
-    log.debug("Poly metadata param names: {}.", Arrays.stream(polyMetadata.paramNames()).collect(joining(",")));
-    log.debug("Poly metadata param types: {}.", Arrays.stream(polyMetadata.paramTypes()).collect(joining(",")));
-    Map<String, Object> body = new HashMap<>();
-    range(0, polyMetadata.paramNames().length).boxed()
-        .forEach(i -> body.put(polyMetadata.paramNames()[i], arguments[i]));
-    return invocation.invoke(invokingClass, polyData.value(), body, method.getGenericReturnType());
+    var plan = plans.computeIfAbsent(method, InvocationPlan::new);
+    if (log.isDebugEnabled()) {
+      log.debug("Executing method {} in proxy class {}.", method, proxy.getClass().getSimpleName());
+      log.debug("Executing Poly {}.", plan.getDescription());
+    }
+    var body = plan.bind(arguments);
+    if (plan.isAsync()) {
+      return asyncInvocation == null
+              ? dispatcher.dispatchBlocking(() -> invocation.invoke(plan.getInvokingClass(), plan.getFunctionId(), body, plan.getReturnType()))
+              : dispatcher.dispatch(() -> asyncInvocation.invoke(plan.getInvokingClass(), plan.getFunctionId(), body, plan.getReturnType()));
+    }
+    return invocation.invoke(plan.getInvokingClass(), plan.getFunctionId(), body, plan.getReturnType());
   }
 }
@@ -1,48 +1,74 @@
 package io.polyapi.client.internal.proxy.invocation.handler;
 
+import io.polyapi.client.api.OnUpdateOptions;
+import io.polyapi.client.api.VariableChangeEvent;
 import io.polyapi.client.api.model.PolyEntity;
 import io.polyapi.client.api.model.PolyMetadata;
 import io.polyapi.client.internal.service.InvocationService;
-import io.polyapi.commons.api.error.PolyApiException;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.stream.Stream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Slf4j
 public class VariInvocationHandler implements InvocationHandler {
     private final InvocationService invocationService;
+    private final Map<Class<?>, DefaultServerVariableHandlerImpl<Object>> handlers = new ConcurrentHashMap<>();
 
     public VariInvocationHandler(InvocationService invocationService) {
         this.invocationService = invocationService;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Object invoke(Object proxy, Method method, Object[] arguments) {
-        Class<?> serverVariableHandlerInterface = proxy.getClass().getInterfaces()[0];
-        var polyData = serverVariableHandlerInterface.getAnnotation(PolyEntity.class);
-        var declaredType = serverVariableHandlerInterface.getAnnotation(PolyMetadata.class).paramTypes()[0];
+        var handler = handlers.computeIfAbsent(proxy.getClass(), this::createHandler);
         log.debug("Executing method {} in proxy class {}.", method, proxy.getClass().getSimpleName());
-        log.debug("Operating with server variable with ID '{}'.", polyData.value());
-        var result = Stream.of(serverVariableHandlerInterface.getInterfaces()[0].getMethods())
-                .filter(parentInterfaceMethod -> parentInterfaceMethod.getName().equals(method.getName()) && parentInterfaceMethod.getParameterCount() == method.getParameterCount())
-                .findFirst()
-                .map(parentInterfaceMethod -> {
-                    try {
-                        return parentInterfaceMethod.invoke(new DefaultServerVariableHandlerImpl<>(polyData.value(), method.getGenericReturnType(), declaredType, invocationService), arguments);
-                    } catch (IllegalAccessException e) {
-                        // FIXME: Throw the appropriate exception.
-                        throw new PolyApiException(e);
-                    } catch (InvocationTargetException e) {
-                        // FIXME: Throw the appropriate exception.
-                        throw new PolyApiException(e);
-                    }
-
-                })
-                .orElse("");
+        var result = switch (method.getName()) {
+            case "get" -> handler.get();
+            case "inject" -> handler.inject();
+            case "update" -> {
+                handler.update(arguments[0]);
+                yield null;
+            }
+            case "onUpdate" -> handler.onUpdate((Consumer<VariableChangeEvent<Object>>) arguments[0], arguments.length > 1 ? (OnUpdateOptions) arguments[1] : null);
+            default -> "";
+        };
         log.debug("Invocation successful.");
         return result;
     }
+
+    /**
+     * Retrieves the values of a set of server variables so that they are kept in memory.
+     *
+     * @param serverVariableHandlerInterfaces The generated interfaces of the server variables.
+     */
+    public void prefetch(List<Class<?>> serverVariableHandlerInterfaces) {
+        Map<String, Type> variables = new LinkedHashMap<>();
+        serverVariableHandlerInterfaces.forEach(serverVariableHandlerInterface -> variables.put(getId(serverVariableHandlerInterface), getValueType(serverVariableHandlerInterface)));
+        invocationService.prefetchVariables(variables);
+    }
+
+    private DefaultServerVariableHandlerImpl<Object> createHandler(Class<?> proxyClass) {
+        Class<?> serverVariableHandlerInterface = proxyClass.getInterfaces()[0];
+        var id = getId(serverVariableHandlerInterface);
+        var declaredType = serverVariableHandlerInterface.getAnnotation(PolyMetadata.class).paramTypes()[0];
+        log.debug("Creating handler for server variable with ID '{}'.", id);
+        return new DefaultServerVariableHandlerImpl<>(id, getValueType(serverVariableHandlerInterface), declaredType, invocationService);
+    }
+
+    private static String getId(Class<?> serverVariableHandlerInterface) {
+        return serverVariableHandlerInterface.getAnnotation(PolyEntity.class).value();
+    }
+
+    private static Type getValueType(Class<?> serverVariableHandlerInterface) {
+        return ((ParameterizedType) serverVariableHandlerInterface.getGenericInterfaces()[0]).getActualTypeArguments()[0];
+    }
 }
@@ -0,0 +1,154 @@
+package io.polyapi.client.internal.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Runs the asynchronous variants of the Poly functions. The results are completed on its executor instead of the
+ * threads of the HTTP client, so that the stages that the callers chain to them don't block the transport. Cancelling
+ * a returned future, or letting it time out, cancels the ongoing call.
+ */
+@Slf4j
+public class AsyncDispatcher implements AutoCloseable {
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final long timeoutMillis;
+
+    /**
+     * Creates a dispatcher with its own executor. If a number of threads is set, it uses a fixed pool of that size.
+     * Otherwise, it uses virtual threads when the JVM supports them, and a cached pool of daemon threads if not.
+     *
+     * @param threads       The number of threads of the executor. Null or zero for the default executor.
+     * @param timeoutMillis The default timeout of the calls in milliseconds. Zero or less for no timeout.
+     */
+    public AsyncDispatcher(Integer threads, long timeoutMillis) {
+        this.ownedExecutor = threads == null || threads <= 0 ? defaultExecutor() : Executors.newFixedThreadPool(threads, new DaemonThreadFactory());
+        this.executor = ownedExecutor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Creates a dispatcher that uses an executor managed by the caller. The executor is not shut down when the
+     * dispatcher is closed.
+     *
+     * @param executor      The executor that completes the calls.
+     * @param timeoutMillis The default timeout of the calls in milliseconds. Zero or less for no timeout.
+     */
+    public AsyncDispatcher(Executor executor, long timeoutMillis) {
+        this.ownedExecutor = null;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Dispatches a call that is already non-blocking.
+     *
+     * @param call The supplier that starts the call.
+     * @param <T>  The type of the result.
+     * @return CompletableFuture The future result of the call.
+     */
+    public <T> CompletableFuture<T> dispatch(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> source;
+        try {
+            source = call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        var result = new CompletableFuture<T>();
+        source.whenCompleteAsync((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(error);
+            }
+        }, executor);
+        result.whenComplete((value, error) -> {
+            if (!source.isDone()) {
+                log.debug("Asynchronous call finished before its response. Cancelling it.");
+                source.cancel(true);
+            }
+        });
+        if (timeoutMillis > 0) {
+            result.orTimeout(timeoutMillis, MILLISECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * Dispatches a blocking call by running it in the executor. Cancelling the returned future interrupts the thread
+     * that runs the call, which ends the ongoing request.
+     *
+     * @param call The blocking call.
+     * @param <T>  The type of the result.
+     * @return CompletableFuture The future result of the call.
+     */
+    public <T> CompletableFuture<T> dispatchBlocking(Supplier<T> call) {
+        return dispatch(() -> {
+            var source = new CompletableFuture<T>();
+            var task = new FutureTask<T>(call::get) {
+                @Override
+                protected void done() {
+                    if (isCancelled()) {
+                        source.cancel(false);
+                        return;
+                    }
+                    try {
+                        source.complete(get());
+                    } catch (ExecutionException e) {
+                        source.completeExceptionally(e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        source.completeExceptionally(e);
+                    }
+                }
+            };
+            // A future from supplyAsync can't interrupt its task, so the task is cancelled along with its future.
+            source.whenComplete((value, error) -> {
+                if (source.isCancelled()) {
+                    task.cancel(true);
+                }
+            });
+            executor.execute(task);
+            return source;
+        });
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private static ExecutorService defaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.debug("Virtual threads are not available in this JVM. Using a cached thread pool.");
+            return Executors.newCachedThreadPool(new DaemonThreadFactory());
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            var thread = new Thread(runnable, format("poly-async-%d", count.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
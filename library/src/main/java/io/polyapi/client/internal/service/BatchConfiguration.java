@@ -0,0 +1,22 @@
+package io.polyapi.client.internal.service;
+
+/**
+ * Configuration of the {@link BatchingInvoker}.
+ *
+ * @param windowMillis Time in milliseconds that calls to a function are collected before they are sent. 0 disables
+ *                     batching.
+ * @param maxSize      Maximum amount of calls sent together. A batch is sent as soon as it reaches this size.
+ * @param parallelism  Maximum amount of calls executed concurrently when they are sent one by one.
+ * @param path         Format of the path of the endpoint that executes several calls to a function in one request,
+ *                     with the function type and ID as arguments. If null, calls are always sent one by one.
+ */
+public record BatchConfiguration(long windowMillis, int maxSize, int parallelism, String path) {
+
+    public static BatchConfiguration disabled() {
+        return new BatchConfiguration(0, 1, 1, null);
+    }
+
+    public boolean isEnabled() {
+        return windowMillis > 0;
+    }
+}
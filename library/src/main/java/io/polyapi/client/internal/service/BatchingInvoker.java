@@ -0,0 +1,250 @@
+package io.polyapi.client.internal.service;
+
+import io.polyapi.commons.api.error.PolyApiException;
+import io.polyapi.commons.api.error.http.NotFoundException;
+import io.polyapi.commons.api.service.PolyApiService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.fasterxml.jackson.databind.type.TypeFactory.defaultInstance;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Invoker that collects the calls to the same function during a short window and sends them together. If there is no
+ * batch endpoint configured, or the server doesn't have it, the calls are sent one by one with bounded parallelism.
+ */
+@Slf4j
+public class BatchingInvoker implements AutoCloseable {
+    private final PolyApiService service;
+    private final BatchConfiguration configuration;
+    private final Map<String, Batch> pending = new HashMap<>();
+    private final Queue<Dispatch> waiting = new LinkedList<>();
+    private ScheduledExecutorService scheduler;
+    private volatile boolean batchEndpointAvailable;
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private int running;
+
+    public BatchingInvoker(PolyApiService service, BatchConfiguration configuration) {
+        this.service = service;
+        this.configuration = configuration;
+        this.batchEndpointAvailable = configuration.path() != null;
+    }
+
+    /**
+     * Adds a call to the batch of its function.
+     *
+     * @param type                 The type of function.
+     * @param id                   The ID of the function.
+     * @param body                 The arguments of the call.
+     * @param expectedResponseType The type of the result.
+     * @param <T>                  The type of the result.
+     * @return CompletableFuture The future result of this call.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submit(String type, String id, Map<String, Object> body, Type expectedResponseType) {
+        var call = new Call(body, expectedResponseType, new CompletableFuture<>());
+        var key = format("%s/%s", type, id);
+        Batch full = null;
+        synchronized (pending) {
+            var batch = pending.get(key);
+            if (batch == null) {
+                batch = new Batch(type, id, new ArrayList<>());
+                pending.put(key, batch);
+                var scheduled = batch;
+                getScheduler().schedule(() -> flush(key, scheduled), configuration.windowMillis(), MILLISECONDS);
+            }
+            batch.calls().add(call);
+            if (batch.calls().size() >= configuration.maxSize()) {
+                pending.remove(key);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return (CompletableFuture<T>) call.result();
+    }
+
+    private void flush(String key, Batch batch) {
+        boolean removed;
+        synchronized (pending) {
+            removed = pending.remove(key, batch);
+        }
+        if (removed) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Sends a batch. If sending it fails before any request is made, all of its calls fail with the error.
+     */
+    private void dispatch(Batch batch) {
+        log.debug("Dispatching {} calls to {} function with ID {}.", batch.calls().size(), batch.type(), batch.id());
+        try {
+            if (batchEndpointAvailable && batch.calls().size() > 1) {
+                dispatchTogether(batch);
+            } else {
+                dispatchEach(batch);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to dispatch {} calls to {} function with ID {}.", batch.calls().size(), batch.type(), batch.id(), e);
+            batch.calls().forEach(call -> call.result().completeExceptionally(e));
+        }
+    }
+
+    private void dispatchTogether(Batch batch) {
+        var bodies = batch.calls().stream().map(Call::body).toList();
+        var resultType = defaultInstance().constructCollectionType(List.class, defaultInstance().constructType(batch.calls().get(0).expectedResponseType()));
+        service.<List<Map<String, Object>>, List<Object>>postAsync(format(configuration.path(), batch.type().toLowerCase(), batch.id()), bodies, resultType)
+                .whenComplete((results, throwable) -> {
+                    if (throwable == null) {
+                        if (results == null || results.size() != batch.calls().size()) {
+                            var error = new PolyApiException(format("Batch execution of function %s returned %s results for %s calls.", batch.id(), results == null ? 0 : results.size(), batch.calls().size()));
+                            batch.calls().forEach(call -> call.result().completeExceptionally(error));
+                        } else {
+                            for (int i = 0; i < results.size(); i++) {
+                                batch.calls().get(i).result().complete(results.get(i));
+                            }
+                        }
+                    } else {
+                        var cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                        if (cause instanceof NotFoundException) {
+                            log.warn("Batch endpoint is not available. Calls will be sent one by one.");
+                            batchEndpointAvailable = false;
+                            dispatchEach(batch);
+                        } else {
+                            batch.calls().forEach(call -> call.result().completeExceptionally(cause));
+                        }
+                    }
+                });
+    }
+
+    private void dispatchEach(Batch batch) {
+        batch.calls().forEach(call -> schedule(new Dispatch(call, () -> {
+            var request = service.<Map<String, Object>, Object>postAsync(format("functions/%s/%s/execute", batch.type().toLowerCase(), batch.id()), call.body(), call.expectedResponseType());
+            request.whenComplete((result, throwable) -> {
+                if (throwable == null) {
+                    call.result().complete(result);
+                } else {
+                    call.result().completeExceptionally(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                }
+            });
+            // Cancelling the result of the call cancels the ongoing request.
+            call.result().whenComplete((result, throwable) -> {
+                if (call.result().isCancelled()) {
+                    request.cancel(true);
+                }
+            });
+            return request;
+        })));
+    }
+
+    /**
+     * Starts a call if there are less than the configured parallelism running, or queues it until one of them ends.
+     */
+    private void schedule(Dispatch dispatch) {
+        synchronized (waiting) {
+            waiting.add(dispatch);
+        }
+        drain();
+    }
+
+    /**
+     * Starts the waiting calls while there are free slots. Only one thread drains at a time: a thread that finds another
+     * one draining, such as one where a call completed immediately, leaves it to drain once more instead of recursing.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int requests = 1;
+        do {
+            startWaiting();
+            requests = drainRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    private void startWaiting() {
+        while (true) {
+            Dispatch next;
+            synchronized (waiting) {
+                if (running >= configuration.parallelism() || waiting.isEmpty()) {
+                    return;
+                }
+                next = waiting.poll();
+                running++;
+            }
+            CompletableFuture<?> request;
+            try {
+                request = next.send().get();
+            } catch (RuntimeException e) {
+                log.error("Failed to dispatch call.", e);
+                next.call().result().completeExceptionally(e);
+                request = next.call().result();
+            }
+            // The slot is held until the request itself ends, even if the result of the call is cancelled before.
+            request.whenComplete((result, throwable) -> {
+                synchronized (waiting) {
+                    running--;
+                }
+                drain();
+            });
+        }
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "poly-batching");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    /**
+     * Sends the pending batches and stops the scheduler.
+     */
+    @Override
+    public void close() {
+        List<Batch> batches;
+        synchronized (pending) {
+            batches = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        batches.forEach(this::dispatch);
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdown();
+                scheduler = null;
+            }
+        }
+    }
+
+    private record Batch(String type, String id, List<Call> calls) {
+    }
+
+    private record Call(Map<String, Object> body, Type expectedResponseType, CompletableFuture<Object> result) {
+    }
+
+    /**
+     * Call waiting for its turn to be sent. The supplier sends it and returns the future of the request.
+     */
+    private record Dispatch(Call call, Supplier<CompletableFuture<?>> send) {
+    }
+}
@@ -0,0 +1,135 @@
+package io.polyapi.client.internal.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongSupplier;
+
+import static io.polyapi.client.internal.service.CircuitBreaker.State.CLOSED;
+import static io.polyapi.client.internal.service.CircuitBreaker.State.HALF_OPEN;
+import static io.polyapi.client.internal.service.CircuitBreaker.State.OPEN;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Circuit breaker of a single function. It stays closed while the function works, opens when the rate of failed or
+ * slow calls among the most recent ones reaches its threshold, and once the open duration is over lets a few trial
+ * calls through in the half-open state to decide whether to close again or keep rejecting calls.
+ */
+@Slf4j
+public class CircuitBreaker {
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String functionId;
+    private final IsolationConfiguration configuration;
+    private final LongSupplier clock;
+    private final long slowCallDurationNanos;
+    private final long openDurationNanos;
+    private final byte[] window;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private State state = CLOSED;
+    private long openedAt;
+    private int trialPermits;
+
+    /**
+     * @param functionId    The ID of the function, used in the logs.
+     * @param configuration The thresholds of the circuit breaker.
+     * @param clock         The source of the current time in nanoseconds.
+     */
+    public CircuitBreaker(String functionId, IsolationConfiguration configuration, LongSupplier clock) {
+        this.functionId = functionId;
+        this.configuration = configuration;
+        this.clock = clock;
+        this.slowCallDurationNanos = MILLISECONDS.toNanos(configuration.slowCallDurationMillis());
+        this.openDurationNanos = MILLISECONDS.toNanos(configuration.openDurationMillis());
+        this.window = new byte[configuration.windowSize()];
+    }
+
+    /**
+     * Checks whether a call can be sent. Every permitted call must be followed by a call to
+     * {@link #onResult(long, boolean)} or {@link #onIgnored()}.
+     *
+     * @return boolean True if the call can be sent, false if it must be rejected.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationNanos) {
+                return false;
+            }
+            transition(HALF_OPEN);
+        }
+        if (state == HALF_OPEN) {
+            if (trialPermits == 0) {
+                return false;
+            }
+            trialPermits--;
+        }
+        return true;
+    }
+
+    /**
+     * Records the outcome of a permitted call and updates the state accordingly.
+     *
+     * @param durationNanos The duration of the call in nanoseconds.
+     * @param failed        Whether the call failed.
+     */
+    public synchronized void onResult(long durationNanos, boolean failed) {
+        if (state == OPEN) {
+            // Calls sent before the circuit opened don't change the decision.
+            return;
+        }
+        byte outcome = (byte) ((failed ? FAILED : 0) | (slowCallDurationNanos > 0 && durationNanos >= slowCallDurationNanos ? SLOW : 0));
+        if (recorded == window.length) {
+            byte evicted = window[position];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            recorded++;
+        }
+        window[position] = outcome;
+        position = (position + 1) % window.length;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+        if (recorded < Math.min(state == HALF_OPEN ? configuration.halfOpenCalls() : configuration.minimumCalls(), window.length)) {
+            return;
+        }
+        if (failures * 100D / recorded >= configuration.failureRateThreshold()
+                || slowCalls * 100D / recorded >= configuration.slowCallRateThreshold()) {
+            log.warn("Function with ID {} has {} failed and {} slow calls out of the last {}. Opening its circuit breaker.", functionId, failures, slowCalls, recorded);
+            transition(OPEN);
+        } else if (state == HALF_OPEN) {
+            transition(CLOSED);
+        }
+    }
+
+    /**
+     * Releases a permitted call whose outcome doesn't tell anything about the health of the function, such as a
+     * cancelled call.
+     */
+    public synchronized void onIgnored() {
+        if (state == HALF_OPEN) {
+            trialPermits++;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transition(State target) {
+        log.debug("Circuit breaker of function with ID {} changed from {} to {}.", functionId, state, target);
+        state = target;
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        openedAt = clock.getAsLong();
+        trialPermits = configuration.halfOpenCalls();
+    }
+}
@@ -0,0 +1,152 @@
+package io.polyapi.client.internal.service;
+
+import io.polyapi.client.api.model.PolyMetadata;
+import io.polyapi.client.error.generation.GeneratedClassInstantiationException;
+import io.polyapi.client.error.generation.GeneratedClassNotFoundException;
+import io.polyapi.client.error.generation.MissingDefaultConstructorException;
+import io.polyapi.client.error.invocation.delegate.DelegateExecutionException;
+import io.polyapi.client.error.invocation.delegate.InvalidMethodDeclarationException;
+import io.polyapi.commons.api.error.PolyApiException;
+import io.polyapi.commons.api.model.PolyFunctionAnnotationRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.function.Predicate.not;
+
+/**
+ * Invoker of the delegate of a custom function. The delegate class is resolved, instantiated and bound to a
+ * {@link MethodHandle} once, so that executing the function costs about the same as a direct call.
+ */
+@Slf4j
+class CustomFunctionInvoker {
+    private static final List<Class<?>> NUMERIC_TYPES = List.of(byte.class, short.class, int.class, long.class, float.class, double.class);
+    private final Class<?> invokingClass;
+    private final MethodHandle handle;
+    private final Class<?>[] paramTypes;
+    private final String[] paramNames;
+
+    CustomFunctionInvoker(Class<?> invokingClass) {
+        log.debug("Resolving delegate for custom function {}.", invokingClass.getName());
+        this.invokingClass = invokingClass;
+        var metadata = Optional.ofNullable(invokingClass.getDeclaredAnnotation(PolyMetadata.class));
+        try {
+            var delegateClass = Class.forName(format("%s.delegate.%s", invokingClass.getPackageName(),
+                    metadata.map(PolyMetadata::delegate).filter(not(String::isBlank))
+                            .orElseGet(invokingClass::getSimpleName)));
+            var delegate = delegateClass.getConstructor().newInstance();
+            var method = Stream.of(invokingClass.getDeclaredMethods()).findFirst()
+                    .orElseThrow(PolyApiException::new);
+            var delegateMethod = findDelegateMethod(delegateClass, method);
+            this.handle = MethodHandles.lookup().unreflect(delegateMethod)
+                    .bindTo(delegate)
+                    .asType(methodType(Object.class, delegateMethod.getParameterTypes()))
+                    .asSpreader(Object[].class, delegateMethod.getParameterCount())
+                    .asType(methodType(Object.class, Object[].class));
+            this.paramTypes = delegateMethod.getParameterTypes();
+            var names = metadata.map(PolyMetadata::paramNames).orElseGet(() -> new String[0]);
+            this.paramNames = names.length == delegateMethod.getParameterCount() ? names : null;
+        } catch (IllegalAccessException e) {
+            throw new InvalidMethodDeclarationException(invokingClass, e);
+        } catch (NoSuchMethodException e) {
+            throw new MissingDefaultConstructorException(invokingClass.getName(), e);
+        } catch (InvocationTargetException | InstantiationException e) {
+            throw new GeneratedClassInstantiationException(invokingClass.getName(), e);
+        } catch (ClassNotFoundException e) {
+            throw new GeneratedClassNotFoundException(invokingClass.getName(), e);
+        }
+    }
+
+    private Method findDelegateMethod(Class<?> delegateClass, Method method) {
+        return Arrays.stream(delegateClass.getDeclaredMethods())
+                .filter(declaredMethod -> Optional
+                        .ofNullable(PolyFunctionAnnotationRecord.createFrom(declaredMethod))
+                        .filter(annotation -> annotation.type().equals("client"))
+                        .filter(not(annotation -> annotation.name().isBlank()))
+                        .filter(annotation -> annotation.name().equalsIgnoreCase(method.getName()))
+                        .isPresent())
+                .filter(declaredMethod -> Arrays.equals(declaredMethod.getParameterTypes(), method.getParameterTypes()))
+                .findFirst()
+                .orElseGet(() -> {
+                    try {
+                        return delegateClass.getDeclaredMethod(method.getName(), method.getParameterTypes());
+                    } catch (NoSuchMethodException e) {
+                        throw new InvalidMethodDeclarationException(invokingClass, e);
+                    }
+                });
+    }
+
+    /**
+     * Executes the delegate. The arguments are taken from the body in the order of the parameter names declared in the
+     * {@link PolyMetadata} of the invoking class or, if they don't match the method, in the order of the body.
+     *
+     * @param body The arguments of the invocation, indexed by parameter name.
+     * @return Object The result of the delegate.
+     * @throws IllegalArgumentException   Thrown when the arguments don't match the parameters of the delegate.
+     * @throws DelegateExecutionException Thrown when the delegate throws an exception.
+     */
+    Object invoke(Map<String, Object> body) {
+        Object[] arguments;
+        if (paramNames == null) {
+            arguments = body.values().toArray();
+        } else {
+            arguments = new Object[paramNames.length];
+            for (int i = 0; i < paramNames.length; i++) {
+                arguments[i] = body.get(paramNames[i]);
+            }
+        }
+        checkArguments(arguments);
+        try {
+            return handle.invokeExact(arguments);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // The arguments are checked beforehand, so the handle can only fail with what the delegate throws.
+            throw new DelegateExecutionException(invokingClass, e);
+        }
+    }
+
+    /**
+     * Checks the arguments the same way as {@link Method#invoke(Object, Object...)}, so that arguments that don't match
+     * the delegate fail before it's invoked instead of being taken as errors of the delegate.
+     */
+    private void checkArguments(Object[] arguments) {
+        if (arguments.length != paramTypes.length) {
+            throw new IllegalArgumentException(format("Custom function %s expects %d arguments, but got %d.", invokingClass.getName(), paramTypes.length, arguments.length));
+        }
+        for (int i = 0; i < arguments.length; i++) {
+            if (!isAssignable(paramTypes[i], arguments[i])) {
+                throw new IllegalArgumentException(format("Argument %d of custom function %s is not a %s.", i, invokingClass.getName(), paramTypes[i].getName()));
+            }
+        }
+    }
+
+    /**
+     * Checks if an argument can be passed as a parameter. Primitive parameters accept their wrapper and the wrappers of
+     * the types that widen to them.
+     */
+    private static boolean isAssignable(Class<?> type, Object argument) {
+        if (!type.isPrimitive()) {
+            return argument == null || type.isInstance(argument);
+        }
+        if (argument == null) {
+            return false;
+        }
+        var source = methodType(argument.getClass()).unwrap().returnType();
+        if (source == type) {
+            return true;
+        }
+        int target = NUMERIC_TYPES.indexOf(type);
+        return source == char.class ? target >= NUMERIC_TYPES.indexOf(int.class) : NUMERIC_TYPES.indexOf(source) >= 0 && target > NUMERIC_TYPES.indexOf(source);
+    }
+}
@@ -0,0 +1,200 @@
+package io.polyapi.client.internal.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.polyapi.client.error.invocation.isolation.BulkheadFullException;
+import io.polyapi.client.error.invocation.isolation.CircuitBreakerOpenException;
+import io.polyapi.commons.api.error.DeadlineExceededException;
+import io.polyapi.commons.api.error.http.HttpResponseException;
+import io.polyapi.commons.api.error.parse.ParsingException;
+import io.polyapi.commons.api.metrics.PolyMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Isolates the functions from each other so that a degraded one cannot take all the threads and connections of the
+ * process. Each function ID gets its own {@link CircuitBreaker}, which rejects its calls while it keeps failing or
+ * being slow, and its own bulkhead, which caps the amount of its calls in flight. Rejected calls fail immediately with
+ * a {@link io.polyapi.client.error.invocation.isolation.FunctionIsolationException} instead of being sent.
+ */
+@Slf4j
+public class FunctionIsolation {
+    private final IsolationConfiguration configuration;
+    private final PolyMetrics metrics;
+    private final LongSupplier clock;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Semaphore>> bulkheads = new ConcurrentHashMap<>();
+    private final AtomicLong circuitBreakerRejections = new AtomicLong();
+    private final AtomicLong bulkheadRejections = new AtomicLong();
+
+    public FunctionIsolation(IsolationConfiguration configuration, PolyMetrics metrics) {
+        this(configuration, metrics, System::nanoTime);
+    }
+
+    FunctionIsolation(IsolationConfiguration configuration, PolyMetrics metrics, LongSupplier clock) {
+        this.configuration = configuration;
+        this.metrics = metrics;
+        this.clock = clock;
+        if (configuration.isEnabled()) {
+            metrics.registerGauge("poly.functions.circuitbreaker.rejected", circuitBreakerRejections::get);
+            metrics.registerGauge("poly.functions.bulkhead.rejected", bulkheadRejections::get);
+        }
+    }
+
+    /**
+     * Executes a blocking call to a function. If the bulkhead of the function is full, it waits up to the configured
+     * time for a free slot.
+     *
+     * @param functionId The ID of the function.
+     * @param call       The call.
+     * @param <T>        The type of the result.
+     * @return T The result of the call.
+     * @throws CircuitBreakerOpenException Thrown when the circuit breaker of the function is open.
+     * @throws BulkheadFullException       Thrown when the function has too many calls in flight.
+     */
+    public <T> T execute(String functionId, Supplier<T> call) {
+        if (!configuration.isEnabled()) {
+            return call.get();
+        }
+        var permit = acquire(functionId, configuration.maxWaitMillis());
+        try {
+            T result = call.get();
+            permit.release(null);
+            return result;
+        } catch (RuntimeException e) {
+            permit.release(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Executes a non-blocking call to a function. It never waits for a free slot in the bulkhead.
+     *
+     * @param functionId The ID of the function.
+     * @param call       The supplier that starts the call.
+     * @param <T>        The type of the result.
+     * @return CompletableFuture The future result of the call, or a failed future if the call was rejected.
+     */
+    public <T> CompletableFuture<T> executeAsync(String functionId, Supplier<CompletableFuture<T>> call) {
+        if (!configuration.isEnabled()) {
+            return call.get();
+        }
+        Permit permit;
+        try {
+            permit = acquire(functionId, 0);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            permit.release(e);
+            throw e;
+        }
+        // The original future is returned so that cancelling it still cancels the ongoing call.
+        result.whenComplete((value, error) -> permit.release(error));
+        return result;
+    }
+
+    private Permit acquire(String functionId, long maxWaitMillis) {
+        var circuitBreaker = configuration.isCircuitBreakerEnabled() ? circuitBreakers.computeIfAbsent(functionId, this::createCircuitBreaker) : null;
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            circuitBreakerRejections.incrementAndGet();
+            throw new CircuitBreakerOpenException(functionId);
+        }
+        var bulkhead = bulkheads.computeIfAbsent(functionId, this::createBulkhead).orElse(null);
+        if (bulkhead != null && !tryAcquire(bulkhead, maxWaitMillis)) {
+            Optional.ofNullable(circuitBreaker).ifPresent(CircuitBreaker::onIgnored);
+            bulkheadRejections.incrementAndGet();
+            throw new BulkheadFullException(functionId);
+        }
+        return new Permit(circuitBreaker, bulkhead, clock.getAsLong());
+    }
+
+    private static boolean tryAcquire(Semaphore bulkhead, long maxWaitMillis) {
+        try {
+            return maxWaitMillis > 0 ? bulkhead.tryAcquire(maxWaitMillis, MILLISECONDS) : bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private CircuitBreaker createCircuitBreaker(String functionId) {
+        var circuitBreaker = new CircuitBreaker(functionId, configuration, clock);
+        metrics.registerGauge(format("poly.functions.%s.circuitbreaker.state", functionId), () -> circuitBreaker.getState().ordinal());
+        return circuitBreaker;
+    }
+
+    private Optional<Semaphore> createBulkhead(String functionId) {
+        int maxConcurrentCalls = configuration.getMaxConcurrentCalls(functionId);
+        if (maxConcurrentCalls <= 0) {
+            return Optional.empty();
+        }
+        var bulkhead = new Semaphore(maxConcurrentCalls);
+        metrics.registerGauge(format("poly.functions.%s.bulkhead.inflight", functionId), () -> maxConcurrentCalls - bulkhead.availablePermits());
+        return Optional.of(bulkhead);
+    }
+
+    /**
+     * Only server side errors, timeouts and transport I/O errors tell that the function is degraded. Errors caused by
+     * the request itself or by the client, such as a bad request or a response that cannot be parsed, don't count as
+     * failures.
+     */
+    private static boolean isFailure(Throwable error) {
+        var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpResponseException httpResponseException) {
+            return httpResponseException.getStatusCode() >= 500 || httpResponseException.getStatusCode() == 408;
+        }
+        for (var current = cause; current != null; current = current.getCause()) {
+            // Jackson errors are I/O exceptions too, but they come from the content and not from the connection.
+            if (current instanceof ParsingException || current instanceof JsonProcessingException) {
+                return false;
+            }
+            if (current instanceof DeadlineExceededException || current instanceof IOException || current instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class Permit {
+        private final CircuitBreaker circuitBreaker;
+        private final Semaphore bulkhead;
+        private final long start;
+
+        private Permit(CircuitBreaker circuitBreaker, Semaphore bulkhead, long start) {
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+            this.start = start;
+        }
+
+        private void release(Throwable error) {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            if (circuitBreaker != null) {
+                if (error instanceof CancellationException || error instanceof CompletionException && error.getCause() instanceof CancellationException) {
+                    circuitBreaker.onIgnored();
+                } else {
+                    circuitBreaker.onResult(clock.getAsLong() - start, error != null && isFailure(error));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.polyapi.client.internal.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the results of functions that are configured as cacheable. Each function has its own time to live, and the
+ * least recently used result is evicted when the cache is full. Functions without a time to live are not cached.
+ */
+@Slf4j
+public class FunctionResultCache {
+    private final Map<String, Long> ttls;
+    private final Map<String, Entry> entries;
+    private final LongSupplier clock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public FunctionResultCache(Map<String, Long> ttls, int maxSize) {
+        this(ttls, maxSize, System::currentTimeMillis);
+    }
+
+    FunctionResultCache(Map<String, Long> ttls, int maxSize, LongSupplier clock) {
+        this.ttls = Map.copyOf(ttls);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Checks if the results of a function are cached.
+     *
+     * @param functionId The ID of the function.
+     * @return boolean True if the function has a time to live.
+     */
+    public boolean isCached(String functionId) {
+        return ttls.getOrDefault(functionId, 0L) > 0;
+    }
+
+    /**
+     * Retrieves the cached result of a function for a set of arguments, or executes it and caches its result.
+     *
+     * @param functionId The ID of the function.
+     * @param arguments  The canonical representation of the arguments.
+     * @param call       The execution of the function.
+     * @param <T>        The type of the result.
+     * @return T The result of the function.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String functionId, String arguments, Supplier<T> call) {
+        var key = functionId + ':' + arguments;
+        var entry = lookup(functionId, key);
+        if (entry != null) {
+            return (T) entry.value();
+        }
+        T result = call.get();
+        put(functionId, key, result);
+        return result;
+    }
+
+    /**
+     * Retrieves the cached result of a function for a set of arguments, or starts its execution and caches its result
+     * once it completes successfully. It shares the entries of {@link #get(String, String, Supplier)}.
+     *
+     * @param functionId The ID of the function.
+     * @param arguments  The canonical representation of the arguments.
+     * @param call       The supplier that starts the execution of the function.
+     * @param <T>        The type of the result.
+     * @return CompletableFuture The future result of the function.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(String functionId, String arguments, Supplier<CompletableFuture<T>> call) {
+        var key = functionId + ':' + arguments;
+        var entry = lookup(functionId, key);
+        if (entry != null) {
+            return CompletableFuture.completedFuture((T) entry.value());
+        }
+        var result = call.get();
+        // The original future is returned so that cancelling it still cancels the ongoing call.
+        result.whenComplete((value, error) -> {
+            if (error == null) {
+                put(functionId, key, value);
+            }
+        });
+        return result;
+    }
+
+    private Entry lookup(String functionId, String key) {
+        synchronized (entries) {
+            var entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiration() > clock.getAsLong()) {
+                    log.debug("Returning cached result of function with ID {}.", functionId);
+                    hits.increment();
+                    return entry;
+                }
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    private void put(String functionId, String key, Object value) {
+        synchronized (entries) {
+            entries.put(key, new Entry(value, clock.getAsLong() + ttls.get(functionId)));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private record Entry(Object value, long expiration) {
+    }
+}
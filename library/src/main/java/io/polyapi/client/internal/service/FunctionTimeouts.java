@@ -0,0 +1,50 @@
+package io.polyapi.client.internal.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Default timeouts of the functions, configured by function ID or by context. The timeout of a function is the one set
+ * for its ID and, if there's none, the one set for its closest context. Contexts are matched without case, as the
+ * generated packages are lowercase.
+ */
+public class FunctionTimeouts {
+    // The generated packages are 'io.polyapi.{type}.{context}.{function name}'.
+    private static final int CONTEXT_PACKAGE_START = 3;
+
+    private final Map<String, Long> timeouts = new HashMap<>();
+
+    /**
+     * @param timeouts The timeouts in milliseconds indexed by function ID or context.
+     */
+    public FunctionTimeouts(Map<String, Long> timeouts) {
+        timeouts.forEach((key, timeout) -> this.timeouts.put(key.toLowerCase(), timeout));
+    }
+
+    public boolean isEmpty() {
+        return timeouts.isEmpty();
+    }
+
+    /**
+     * Retrieves the timeout of a function.
+     *
+     * @param invokingClass The generated class of the function, whose package contains its context.
+     * @param functionId    The ID of the function.
+     * @return Optional The timeout in milliseconds, if there's one for the function or any of its contexts.
+     */
+    public Optional<Long> get(Class<?> invokingClass, String functionId) {
+        if (timeouts.isEmpty()) {
+            return Optional.empty();
+        }
+        var timeout = timeouts.get(functionId.toLowerCase());
+        if (timeout == null && invokingClass != null) {
+            var packages = invokingClass.getPackageName().split("\\.");
+            for (int end = packages.length - 1; timeout == null && end > CONTEXT_PACKAGE_START; end--) {
+                timeout = timeouts.get(String.join(".", Arrays.copyOfRange(packages, CONTEXT_PACKAGE_START, end)));
+            }
+        }
+        return Optional.ofNullable(timeout).filter(value -> value > 0);
+    }
+}
@@ -1,14 +1,24 @@
 package io.polyapi.client.internal.service;
 
+import io.polyapi.client.api.OnUpdateListener;
+import io.polyapi.client.api.OnUpdateOptions;
+import io.polyapi.client.api.VariableChangeEvent;
+
 import java.lang.reflect.Type;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
-public interface InvocationService {
+public interface InvocationService extends AutoCloseable {
 
     <T> T invokeServerFunction(Class<?> invokingClass, String id, Map<String, Object> body, Type expectedResponseType);
 
     <T> T invokeApiFunction(Class<?> invokingClass, String id, Map<String, Object> body, Type expectedResponseType);
 
+    <T> CompletableFuture<T> invokeServerFunctionAsync(Class<?> invokingClass, String id, Map<String, Object> body, Type expectedResponseType);
+
+    <T> CompletableFuture<T> invokeApiFunctionAsync(Class<?> invokingClass, String id, Map<String, Object> body, Type expectedResponseType);
+
     <T> T invokeCustomFunction(Class<?> invokingClass, String id, Map<String, Object> body, Type expectedResponseType);
 
     Void invokeAuthFunction(Class<?> invokingClass, String id, Map<String, Object> body, Type expectedResponseType);
@@ -21,4 +31,14 @@ public interface InvocationService {
 
     <T> void updateVariable(String id, T entity);
 
+    void prefetchVariables(Map<String, Type> variables);
+
+    <T> OnUpdateListener onVariableUpdate(String id, Type type, Consumer<VariableChangeEvent<T>> callback, OnUpdateOptions options);
+
+    /**
+     * Releases the resources held by the service. By default, it does nothing.
+     */
+    @Override
+    default void close() {
+    }
 }
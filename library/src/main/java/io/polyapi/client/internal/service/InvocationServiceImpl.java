@@ -4,35 +4,36 @@ import io.polyapi.client.api.ApiFunctionResponse;
 import io.polyapi.client.api.AuthTokenEventConsumer;
 import io.polyapi.client.api.AuthTokenOptions;
 import io.polyapi.client.api.GetAuthTokenResponse;
-import io.polyapi.client.api.model.PolyMetadata;
+import io.polyapi.client.api.OnUpdateListener;
+import io.polyapi.client.api.OnUpdateOptions;
+import io.polyapi.client.api.VariableChangeEvent;
 import io.polyapi.client.api.model.function.PolyAuthSubresource;
-import io.polyapi.client.error.generation.GeneratedClassInstantiationException;
-import io.polyapi.client.error.generation.GeneratedClassNotFoundException;
-import io.polyapi.client.error.generation.MissingDefaultConstructorException;
-import io.polyapi.client.error.invocation.delegate.DelegateExecutionException;
-import io.polyapi.client.error.invocation.delegate.InvalidMethodDeclarationException;
 import io.polyapi.commons.api.error.PolyApiException;
 import io.polyapi.commons.api.http.HttpClient;
 import io.polyapi.commons.api.json.JsonParser;
-import io.polyapi.commons.api.model.PolyFunctionAnnotationRecord;
+import io.polyapi.commons.api.metrics.PolyMetrics;
+import io.polyapi.commons.api.service.Deadline;
 import io.polyapi.commons.api.service.PolyApiService;
 import io.polyapi.commons.api.websocket.Handle;
 import io.polyapi.commons.api.websocket.WebSocketClient;
 import lombok.extern.slf4j.Slf4j;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.fasterxml.jackson.databind.type.TypeFactory.defaultInstance;
 import static java.lang.String.format;
-import static java.util.function.Predicate.not;
 
 @Slf4j
 public class InvocationServiceImpl extends PolyApiService implements InvocationService {
@@ -40,73 +41,74 @@ public class InvocationServiceImpl extends PolyApiService implements InvocationS
     private final String clientId;
     private final JsonParser jsonParser;
     private final VariableInjectionService variableInjectionService;
+    private final ServerVariableCache variableCache;
+    private final FunctionResultCache functionResultCache;
+    private final FunctionTimeouts functionTimeouts;
+    private final BatchingInvoker batchingInvoker;
+    private final FunctionIsolation functionIsolation;
+    private final Map<Class<?>, CustomFunctionInvoker> customFunctionInvokers = new ConcurrentHashMap<>();
+    private final Set<String> watchedVariables = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> executePaths = new ConcurrentHashMap<>();
 
     public InvocationServiceImpl(HttpClient client, JsonParser jsonParser, String host, Integer port, String clientId,
                                  WebSocketClient webSocketClient, VariableInjectionService variableInjectionService) {
-        super(client, jsonParser, host, port);
+        this(client, jsonParser, host, port, clientId, webSocketClient, variableInjectionService, new ServerVariableCache(0, 0), new FunctionResultCache(Map.of(), 0), new FunctionTimeouts(Map.of()), BatchConfiguration.disabled(), IsolationConfiguration.disabled(), false, PolyMetrics.NOOP);
+    }
+
+    public InvocationServiceImpl(HttpClient client, JsonParser jsonParser, String host, Integer port, String clientId,
+                                 WebSocketClient webSocketClient, VariableInjectionService variableInjectionService,
+                                 ServerVariableCache variableCache, FunctionResultCache functionResultCache,
+                                 FunctionTimeouts functionTimeouts, BatchConfiguration batchConfiguration, IsolationConfiguration isolationConfiguration,
+                                 boolean coalesceReads, PolyMetrics metrics) {
+        super(client, jsonParser, host, port, coalesceReads, metrics);
         this.clientId = clientId;
         this.jsonParser = jsonParser;
         this.webSocketClient = webSocketClient;
         this.variableInjectionService = variableInjectionService;
+        this.variableCache = variableCache;
+        this.functionResultCache = functionResultCache;
+        this.functionTimeouts = functionTimeouts;
+        this.batchingInvoker = batchConfiguration.isEnabled() ? new BatchingInvoker(this, batchConfiguration) : null;
+        this.functionIsolation = new FunctionIsolation(isolationConfiguration, metrics);
+        metrics.registerGauge("poly.functions.cache.hits", functionResultCache::getHitCount);
+        metrics.registerGauge("poly.functions.cache.misses", functionResultCache::getMissCount);
+        getRequestCoalescer().ifPresent(coalescer -> {
+            metrics.registerGauge("poly.requests.coalesced", coalescer::getCoalescedCount);
+            metrics.registerGauge("poly.requests.executed", coalescer::getExecutedCount);
+        });
     }
 
     @Override
     public <T> T invokeServerFunction(Class<?> invokingClass, String id, Map<String, Object> body,
                                       Type expectedResponseType) {
-        return invokeFunction("server", id, body, expectedResponseType);
+        return invokeFunction(invokingClass, "server", id, body, expectedResponseType);
     }
 
     @Override
     public <T> T invokeApiFunction(Class<?> invokingClass, String id, Map<String, Object> body,
                                    Type expectedResponseType) {
-        return this.<ApiFunctionResponse<T>>invokeFunction("API", id, body, defaultInstance().constructParametricType(
+        return this.<ApiFunctionResponse<T>>invokeFunction(invokingClass, "API", id, body, defaultInstance().constructParametricType(
                 ApiFunctionResponse.class, defaultInstance().constructType(expectedResponseType))).getData();
     }
 
+    @Override
+    public <T> CompletableFuture<T> invokeServerFunctionAsync(Class<?> invokingClass, String id, Map<String, Object> body,
+                                                             Type expectedResponseType) {
+        return invokeFunctionAsync(invokingClass, "server", id, body, expectedResponseType);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> invokeApiFunctionAsync(Class<?> invokingClass, String id, Map<String, Object> body,
+                                                          Type expectedResponseType) {
+        return this.<ApiFunctionResponse<T>>invokeFunctionAsync(invokingClass, "API", id, body, defaultInstance().constructParametricType(
+                ApiFunctionResponse.class, defaultInstance().constructType(expectedResponseType))).thenApply(ApiFunctionResponse::getData);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> T invokeCustomFunction(Class<?> invokingClass, String id, Map<String, Object> body,
                                       Type expectedResponseType) {
-        try {
-            var delegateClass = Class.forName(format("%s.delegate.%s", invokingClass.getPackageName(),
-                    Optional.ofNullable(invokingClass.getDeclaredAnnotation(PolyMetadata.class))
-                            .map(PolyMetadata::delegate).filter(not(String::isBlank))
-                            .orElseGet(invokingClass::getSimpleName)));
-            Object delegate;
-            delegate = delegateClass.getConstructor().newInstance();
-            var method = Stream.of(invokingClass.getDeclaredMethods()).findFirst()
-                    .orElseThrow(PolyApiException::new);
-            try {
-                return (T) Arrays.stream(delegateClass.getDeclaredMethods())
-                        .filter(declaredMethod -> Optional
-                                .ofNullable(PolyFunctionAnnotationRecord.createFrom(declaredMethod))
-                                .filter(annotation -> annotation.type().equals("client"))
-                                .filter(not(annotation -> annotation.name().isBlank()))
-                                .filter(annotation -> annotation.name().equalsIgnoreCase(method.getName()))
-                                .isPresent())
-                        .filter(declaredMethod -> Arrays.equals(declaredMethod.getParameterTypes(), method.getParameterTypes()))
-                        .findFirst()
-                        .orElseGet(() -> {
-                            try {
-                                return delegateClass.getDeclaredMethod(method.getName(),
-                                        method.getParameterTypes());
-                            } catch (NoSuchMethodException e) {
-                                throw new InvalidMethodDeclarationException(invokingClass, e);
-                            }
-                        })
-                        .invoke(delegate, body.values().toArray());
-            } catch (IllegalAccessException e) {
-                throw new InvalidMethodDeclarationException(invokingClass, e);
-            } catch (InvocationTargetException e) {
-                throw new DelegateExecutionException(invokingClass, e);
-            }
-        } catch (NoSuchMethodException e) {
-            throw new MissingDefaultConstructorException(invokingClass.getName(), e);
-        } catch (InvocationTargetException | IllegalAccessException | InstantiationException e) {
-            throw new GeneratedClassInstantiationException(invokingClass.getName(), e);
-        } catch (ClassNotFoundException e) {
-            throw new GeneratedClassNotFoundException(invokingClass.getName(), e);
-        }
+        return (T) customFunctionInvokers.computeIfAbsent(invokingClass, CustomFunctionInvoker::new).invoke(body);
     }
 
     @Override
@@ -167,10 +169,54 @@ public class InvocationServiceImpl extends PolyApiService implements InvocationS
         }
     }
 
-    private <T> T invokeFunction(String type, String id, Map<String, Object> body, Type expectedResponseType) {
+    private <T> T invokeFunction(Class<?> invokingClass, String type, String id, Map<String, Object> body, Type expectedResponseType) {
+        if (functionResultCache.isCached(id) && !(expectedResponseType instanceof Class<?> clazz && InputStream.class.isAssignableFrom(clazz))) {
+            var replacedBody = replace(body);
+            return functionResultCache.get(id, jsonParser.toJsonString(replacedBody), () -> withTimeout(invokingClass, id, () -> functionIsolation.execute(id, () -> executeFunction(type, id, replacedBody, expectedResponseType))));
+        }
+        var replacedBody = replace(body);
+        return withTimeout(invokingClass, id, () -> functionIsolation.execute(id, () -> executeFunction(type, id, replacedBody, expectedResponseType)));
+    }
+
+    private <T> CompletableFuture<T> invokeFunctionAsync(Class<?> invokingClass, String type, String id, Map<String, Object> body, Type expectedResponseType) {
+        log.debug("Invoking Poly {} function with ID {} asynchronously.", type, id);
+        var replacedBody = replace(body);
+        if (functionResultCache.isCached(id) && !(expectedResponseType instanceof Class<?> clazz && InputStream.class.isAssignableFrom(clazz))) {
+            return functionResultCache.getAsync(id, jsonParser.toJsonString(replacedBody), () -> executeFunctionAsync(invokingClass, type, id, replacedBody, expectedResponseType));
+        }
+        return executeFunctionAsync(invokingClass, type, id, replacedBody, expectedResponseType);
+    }
+
+    private <T> CompletableFuture<T> executeFunctionAsync(Class<?> invokingClass, String type, String id, Map<String, Object> body, Type expectedResponseType) {
+        return withTimeout(invokingClass, id, () -> {
+            // Batches are sent later and share a single request, so calls with a deadline are sent on their own.
+            if (batchingInvoker != null && Deadline.current().isEmpty()) {
+                return functionIsolation.executeAsync(id, () -> batchingInvoker.submit(type, id, body, expectedResponseType));
+            }
+            return functionIsolation.executeAsync(id, () -> postAsync(executePath(type, id), body, expectedResponseType));
+        });
+    }
+
+    /**
+     * Runs a call to a function within its default timeout, if it has one. If the call is already within a deadline,
+     * the earlier of both applies.
+     */
+    private <T> T withTimeout(Class<?> invokingClass, String id, Supplier<T> call) {
+        var timeout = functionTimeouts.get(invokingClass, id);
+        return timeout.isPresent() ? Deadline.call(Deadline.after(timeout.get()), call) : call.get();
+    }
+
+    /**
+     * Retrieves the path to execute a function, which is composed once per function as function IDs are unique.
+     */
+    private String executePath(String type, String id) {
+        return executePaths.computeIfAbsent(id, key -> format("functions/%s/%s/execute", type.toLowerCase(), key));
+    }
+
+    private <T> T executeFunction(String type, String id, Map<String, Object> body, Type expectedResponseType) {
         log.debug("Invoking Poly {} function with ID {}.", type, id);
-        var result = super.<Map<String, Object>, T>post(format("functions/%s/%s/execute", type.toLowerCase(), id),
-                replace(body), expectedResponseType);
+        var result = super.<Map<String, Object>, T>post(executePath(type, id),
+                body, expectedResponseType);
         log.debug("Function successfully executed. Returning result as {}.", expectedResponseType.getTypeName());
         return result;
     }
@@ -181,18 +227,102 @@ public class InvocationServiceImpl extends PolyApiService implements InvocationS
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T getVariable(String id, Type expectedResponseType) {
+        var entry = variableCache.get(id);
+        if (entry != null) {
+            log.debug("Returning cached value of variable with ID {}.", id);
+            return (T) entry.value();
+        }
+        if (!variableCache.isEnabled()) {
+            return fetchVariable(id, expectedResponseType);
+        }
+        watchVariable(id);
+        var stamp = variableCache.stamp();
+        T result = fetchVariable(id, expectedResponseType);
+        variableCache.put(id, result, stamp);
+        return result;
+    }
+
+    @Override
+    public void prefetchVariables(Map<String, Type> variables) {
+        log.debug("Prefetching {} variables.", variables.size());
+        var stamp = variableCache.stamp();
+        var fetches = new ArrayList<CompletableFuture<Void>>();
+        variables.forEach((id, type) -> {
+            // Each watch is registered before its value is requested so that no change is missed, while the values of
+            // the previous variables are already being retrieved. Without a watch, the value couldn't be invalidated.
+            if (watchVariable(id)) {
+                fetches.add(getAsync(format("variables/%s/value", id), type).thenAccept(value -> variableCache.snapshot(id, value, stamp)));
+            } else {
+                log.warn("Variable with ID {} won't be prefetched.", id);
+            }
+        });
+        try {
+            CompletableFuture.allOf(fetches.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new PolyApiException(e.getCause());
+        }
+        log.debug("Variables prefetched.");
+    }
+
+    private <T> T fetchVariable(String id, Type expectedResponseType) {
         log.debug("Retrieving variable of type {} with ID {}.", expectedResponseType.getTypeName(), id);
         return get(format("variables/%s/value", id), expectedResponseType);
     }
 
+    /**
+     * Listens to the changes of a variable so that its cached value is discarded when it's updated or deleted. If the
+     * listener cannot be registered, the cached value is kept until it expires.
+     */
+    /**
+     * Listens to the changes of a variable to invalidate its cached value. If the registration fails, it's retried the
+     * next time the variable is watched.
+     *
+     * @return boolean Whether the changes of the variable are being listened to.
+     */
+    private boolean watchVariable(String id) {
+        if (watchedVariables.add(id)) {
+            try {
+                webSocketClient.<VariableChangeEvent<Object>>registerVariableChangeEventHandler(id, VariableChangeEvent.class, event -> variableCache.invalidate(id));
+            } catch (RuntimeException e) {
+                watchedVariables.remove(id);
+                log.warn("Couldn't listen to changes of variable with ID {}. Its cached value will be kept until it expires.", id, e);
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public <T> void updateVariable(String id, T entity) {
         log.debug("Updating variable with ID {}.", id);
         patch(format("variables/%s", id), entity);
+        variableCache.invalidate(id);
         log.debug("Update successful.");
     }
 
+    @Override
+    public <T> OnUpdateListener onVariableUpdate(String id, Type type, Consumer<VariableChangeEvent<T>> callback, OnUpdateOptions options) {
+        log.debug("Registering update listener for variable with ID {}.", id);
+        var handle = webSocketClient.<VariableChangeEvent<T>>registerVariableChangeEventHandler(id,
+                defaultInstance().constructParametricType(VariableChangeEvent.class, defaultInstance().constructType(type)),
+                event -> {
+                    if (matches(options, event)) {
+                        callback.accept(event);
+                    }
+                });
+        return handle::close;
+    }
+
+    private static boolean matches(OnUpdateOptions options, VariableChangeEvent<?> event) {
+        return options == null || ((options.getType() == null || options.getType() == event.getType())
+                && (options.getSecret() == null || options.getSecret() == event.isSecret()));
+    }
+
     @Override
     public Void invokeSubresourceAuthFunction(Class<?> invokingClass, String id, Map<String, Object> body,
                                               Type expectedResponseType) {
@@ -203,8 +333,13 @@ public class InvocationServiceImpl extends PolyApiService implements InvocationS
     }
 
     private Map<String, Object> replace(Map<String, Object> body) {
-        return body.entrySet().stream().collect(Collectors.<Map.Entry<String, Object>, String, Object>toMap(
-                Map.Entry::getKey, entry -> variableInjectionService.replace(entry.getKey(), entry.getValue())));
+        return variableInjectionService.replace(body);
     }
 
+    @Override
+    public void close() {
+        if (batchingInvoker != null) {
+            batchingInvoker.close();
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package io.polyapi.client.internal.service;
+
+import java.util.Map;
+
+/**
+ * Configuration of the {@link FunctionIsolation}.
+ *
+ * @param windowSize                 Amount of most recent calls of a function used to calculate its failure and slow
+ *                                   call rates. 0 disables the circuit breakers.
+ * @param minimumCalls               Minimum amount of calls in the window before the rates are evaluated.
+ * @param failureRateThreshold       Percentage of failed calls that opens the circuit breaker.
+ * @param slowCallRateThreshold      Percentage of slow calls that opens the circuit breaker.
+ * @param slowCallDurationMillis     Duration in milliseconds from which a call is considered slow.
+ * @param openDurationMillis         Time in milliseconds that a circuit breaker stays open before letting trial calls
+ *                                   through.
+ * @param halfOpenCalls              Amount of trial calls that decide whether a half-open circuit breaker closes again.
+ * @param maxConcurrentCalls         Maximum amount of calls in flight per function. 0 for no limit.
+ * @param functionMaxConcurrentCalls Maximum amount of calls in flight of specific functions, indexed by function ID.
+ * @param maxWaitMillis              Time in milliseconds that a blocking call waits for a free slot before being
+ *                                   rejected.
+ */
+public record IsolationConfiguration(int windowSize, int minimumCalls, double failureRateThreshold,
+                                     double slowCallRateThreshold, long slowCallDurationMillis, long openDurationMillis,
+                                     int halfOpenCalls, int maxConcurrentCalls,
+                                     Map<String, Integer> functionMaxConcurrentCalls, long maxWaitMillis) {
+
+    public static IsolationConfiguration disabled() {
+        return new IsolationConfiguration(0, 1, 100, 100, 0, 0, 1, 0, Map.of(), 0);
+    }
+
+    public boolean isCircuitBreakerEnabled() {
+        return windowSize > 0;
+    }
+
+    public int getMaxConcurrentCalls(String functionId) {
+        return functionMaxConcurrentCalls.getOrDefault(functionId, maxConcurrentCalls);
+    }
+
+    public boolean isEnabled() {
+        return isCircuitBreakerEnabled() || maxConcurrentCalls > 0 || !functionMaxConcurrentCalls.isEmpty();
+    }
+}
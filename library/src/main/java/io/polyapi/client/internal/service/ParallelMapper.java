@@ -0,0 +1,187 @@
+package io.polyapi.client.internal.service;
+
+import io.polyapi.client.api.ParallelError;
+import io.polyapi.client.api.ParallelOptions;
+import io.polyapi.client.api.ParallelResult;
+import io.polyapi.client.api.ParallelStats;
+import io.polyapi.commons.api.error.PolyApiException;
+import io.polyapi.commons.api.service.Deadline;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static io.polyapi.commons.internal.http.HttpClientConfiguration.DEFAULT_MAX_REQUESTS_PER_HOST;
+import static java.lang.String.format;
+
+/**
+ * Executes a function over a set of inputs with bounded concurrency. Inputs are only read from their iterator when
+ * there is room for another call in flight, so large or lazy sources are never loaded at once.
+ */
+@Slf4j
+public class ParallelMapper {
+    private final AsyncDispatcher dispatcher;
+    private final int defaultConcurrency;
+
+    public ParallelMapper(AsyncDispatcher dispatcher) {
+        this(dispatcher, DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    /**
+     * Creates the mapper.
+     *
+     * @param dispatcher         The dispatcher that executes the blocking functions.
+     * @param defaultConcurrency The maximum amount of calls in flight when the options don't set one, usually the
+     *                           configured maximum amount of concurrent requests per host.
+     */
+    public ParallelMapper(AsyncDispatcher dispatcher, int defaultConcurrency) {
+        this.dispatcher = dispatcher;
+        this.defaultConcurrency = defaultConcurrency;
+    }
+
+    /**
+     * Executes a blocking function, such as a generated Poly function, in the executor of the dispatcher. The deadline
+     * of the calling thread, if any, also applies to the calls.
+     *
+     * @param inputs   The inputs of the function.
+     * @param function The function.
+     * @param options  The options of the execution. It can be null.
+     * @param <I>      The type of the inputs.
+     * @param <O>      The type of the results.
+     * @return ParallelResult The results, errors and stats of the execution.
+     */
+    public <I, O> ParallelResult<I, O> map(Iterator<I> inputs, Function<I, O> function, ParallelOptions options) {
+        var deadline = Deadline.current().orElse(null);
+        return mapAsync(inputs, input -> dispatcher.dispatchBlocking(() -> deadline == null ? function.apply(input) : Deadline.call(deadline, () -> function.apply(input))), options);
+    }
+
+    /**
+     * Executes a non-blocking function, such as the asynchronous variant of a generated Poly function.
+     *
+     * @param inputs   The inputs of the function.
+     * @param function The function.
+     * @param options  The options of the execution. It can be null.
+     * @param <I>      The type of the inputs.
+     * @param <O>      The type of the results.
+     * @return ParallelResult The results, errors and stats of the execution.
+     * @throws PolyApiException Thrown when a call fails and the execution is set to fail fast.
+     */
+    public <I, O> ParallelResult<I, O> mapAsync(Iterator<I> inputs, Function<I, CompletableFuture<O>> function, ParallelOptions options) {
+        var parallelOptions = Optional.ofNullable(options).orElseGet(ParallelOptions::new);
+        int concurrency = Optional.ofNullable(parallelOptions.getConcurrency()).filter(value -> value > 0).orElse(defaultConcurrency);
+        boolean ordered = Optional.ofNullable(parallelOptions.getOrdered()).orElse(true);
+        boolean failFast = Optional.ofNullable(parallelOptions.getFailFast()).orElse(true);
+        var permits = new Semaphore(concurrency);
+        Set<CompletableFuture<O>> inFlight = ConcurrentHashMap.newKeySet();
+        List<Completion<I, O>> completions = new ArrayList<>();
+        var firstFailure = new AtomicReference<Completion<I, O>>();
+        long start = System.nanoTime();
+        int index = 0;
+        try {
+            while (inputs.hasNext()) {
+                permits.acquire();
+                if (failFast && firstFailure.get() != null) {
+                    permits.release();
+                    break;
+                }
+                var input = inputs.next();
+                int callIndex = index++;
+                long callStart = System.nanoTime();
+                CompletableFuture<O> call;
+                try {
+                    call = function.apply(input);
+                } catch (RuntimeException e) {
+                    call = CompletableFuture.failedFuture(e);
+                }
+                inFlight.add(call);
+                var registered = call;
+                call.whenComplete((result, error) -> {
+                    inFlight.remove(registered);
+                    var completion = new Completion<>(callIndex, input, result, unwrap(error), System.nanoTime() - callStart);
+                    synchronized (completions) {
+                        completions.add(completion);
+                    }
+                    if (error != null) {
+                        firstFailure.compareAndSet(null, completion);
+                    }
+                    permits.release();
+                });
+            }
+            if (failFast && firstFailure.get() != null) {
+                inFlight.forEach(call -> call.cancel(true));
+            }
+            permits.acquire(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            inFlight.forEach(call -> call.cancel(true));
+            throw new PolyApiException("Parallel execution interrupted.", e);
+        }
+        long elapsed = System.nanoTime() - start;
+        var failure = firstFailure.get();
+        if (failFast && failure != null) {
+            throw new PolyApiException(format("Parallel execution failed for input at index %d.", failure.index()), failure.error());
+        }
+        return result(completions, index, ordered, elapsed);
+    }
+
+    private static <I, O> ParallelResult<I, O> result(List<Completion<I, O>> completions, int calls, boolean ordered, long elapsedNanos) {
+        List<O> results = new ArrayList<>(calls);
+        List<ParallelError<I>> errors = new ArrayList<>();
+        if (ordered) {
+            completions.sort(Comparator.comparingInt(Completion::index));
+        }
+        long[] latencies = new long[completions.size()];
+        long totalLatency = 0;
+        for (int i = 0; i < latencies.length; i++) {
+            var completion = completions.get(i);
+            latencies[i] = completion.latencyNanos();
+            totalLatency += completion.latencyNanos();
+            if (completion.error() == null) {
+                results.add(completion.result());
+            } else {
+                errors.add(new ParallelError<>(completion.index(), completion.input(), completion.error()));
+                if (ordered) {
+                    results.add(null);
+                }
+            }
+        }
+        Arrays.sort(latencies);
+        double elapsedMillis = elapsedNanos / 1_000_000D;
+        var stats = new ParallelStats(calls,
+                calls - errors.size(),
+                errors.size(),
+                Math.round(elapsedMillis),
+                elapsedMillis == 0 ? 0 : calls * 1000D / elapsedMillis,
+                latencies.length == 0 ? 0 : totalLatency / 1_000_000D / latencies.length,
+                percentile(latencies, 0.5),
+                percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1_000_000D);
+        log.debug("Parallel execution of {} calls finished in {}ms with {} errors.", calls, stats.getElapsedMillis(), stats.getFailed());
+        return new ParallelResult<>(results, errors, stats);
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        return sortedLatencies[(int) Math.ceil(percentile * sortedLatencies.length) - 1] / 1_000_000D;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private record Completion<I, O>(int index, I input, O result, Throwable error, long latencyNanos) {
+    }
+}
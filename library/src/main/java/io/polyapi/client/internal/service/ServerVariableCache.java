@@ -0,0 +1,112 @@
+package io.polyapi.client.internal.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Local cache of server variable values. Entries expire after a fixed time to live, and the least recently used entry
+ * is evicted when the cache is full. A time to live of 0 disables the cache, except for prefetched values.
+ */
+@Slf4j
+public class ServerVariableCache {
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    private final LongSupplier clock;
+    private long invalidations;
+
+    public ServerVariableCache(long ttlMillis, int maxSize) {
+        this(ttlMillis, maxSize, System::currentTimeMillis);
+    }
+
+    ServerVariableCache(long ttlMillis, int maxSize, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return ttlMillis > 0;
+    }
+
+    /**
+     * Retrieves the value of a variable if it is cached and hasn't expired.
+     *
+     * @param id The ID of the variable.
+     * @return Entry The cached entry, or null if there is none.
+     */
+    public synchronized Entry get(String id) {
+        var entry = entries.get(id);
+        if (entry != null && entry.expiration() <= clock.getAsLong()) {
+            log.debug("Cached value of variable with ID {} expired.", id);
+            entries.remove(id);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Retrieves a stamp to be taken before retrieving a value from the server, and passed to
+     * {@link #put(String, Object, long)} afterward.
+     *
+     * @return long The stamp.
+     */
+    public synchronized long stamp() {
+        return invalidations;
+    }
+
+    /**
+     * Caches the value of a variable unless the cache has been invalidated since the stamp was taken, as the value may
+     * be outdated already.
+     *
+     * @param id    The ID of the variable.
+     * @param value The value of the variable.
+     * @param stamp The stamp taken with {@link #stamp()} before retrieving the value.
+     */
+    public synchronized void put(String id, Object value, long stamp) {
+        if (isEnabled() && stamp == invalidations) {
+            entries.put(id, new Entry(value, clock.getAsLong() + ttlMillis));
+        }
+    }
+
+    /**
+     * Caches a prefetched value of a variable. Unlike {@link #put(String, Object, long)}, the value is cached even if
+     * the cache is disabled, in which case it is kept until it's invalidated or evicted.
+     *
+     * @param id    The ID of the variable.
+     * @param value The value of the variable.
+     * @param stamp The stamp taken with {@link #stamp()} before retrieving the value.
+     */
+    public synchronized void snapshot(String id, Object value, long stamp) {
+        if (stamp == invalidations) {
+            entries.put(id, new Entry(value, isEnabled() ? clock.getAsLong() + ttlMillis : Long.MAX_VALUE));
+        }
+    }
+
+    public synchronized void invalidate(String id) {
+        log.debug("Invalidating cached value of variable with ID {}.", id);
+        invalidations++;
+        entries.remove(id);
+    }
+
+    public synchronized void clear() {
+        invalidations++;
+        entries.clear();
+    }
+
+    /**
+     * Cached value of a variable.
+     *
+     * @param value      The value, which may be null.
+     * @param expiration The time in milliseconds after which the value is no longer valid.
+     */
+    public record Entry(Object value, long expiration) {
+    }
+}
@@ -1,7 +1,18 @@
 package io.polyapi.client.internal.service;
 
+import java.util.Map;
+
 public interface VariableInjectionService {
     Object replace(String propertyName, Object original);
 
+    /**
+     * Replaces the injected variables in the body of an invocation with their server reference. If there is nothing to
+     * replace, the same body is returned.
+     *
+     * @param body The body of the invocation.
+     * @return Map The body with the injected variables replaced.
+     */
+    Map<String, Object> replace(Map<String, Object> body);
+
     <T> T inject(String key, String type);
 }
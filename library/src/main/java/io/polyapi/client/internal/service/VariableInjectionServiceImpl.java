@@ -8,30 +8,124 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public class VariableInjectionServiceImpl implements VariableInjectionService {
 
-    private static final Map<String, Object> injectionMap = new HashMap<>();
+    private static final Map<String, Object> injectionMap = new ConcurrentHashMap<>();
+    private static final Map<Identity, String> injectedIds = new ConcurrentHashMap<>();
+    private final boolean deepReplacement;
+
+    public VariableInjectionServiceImpl() {
+        this(false);
+    }
+
+    /**
+     * Creates the service.
+     *
+     * @param deepReplacement Whether the injected variables are also replaced inside nested maps, collections and arrays
+     *                        of the body, or only in its top level entries.
+     */
+    public VariableInjectionServiceImpl(boolean deepReplacement) {
+        this.deepReplacement = deepReplacement;
+    }
 
     @Override
     public Object replace(String propertyName, Object original) {
-        return injectionMap.entrySet().stream()
-                .filter(entry -> entry.getValue() == original)
-                .peek(entry -> log.debug("Replacing property '{}' with server variable with ID '{}'.", propertyName, entry.getKey()))
-                .findFirst()
-                .<Object>map(entry -> new InjectedVariable(entry.getKey(), null))
-                .orElse(original);
+        var id = original == null ? null : injectedIds.get(new Identity(original));
+        if (id == null) {
+            return original;
+        }
+        log.debug("Replacing property '{}' with server variable with ID '{}'.", propertyName, id);
+        return new InjectedVariable(id, null);
+    }
+
+    @Override
+    public Map<String, Object> replace(Map<String, Object> body) {
+        if (injectedIds.isEmpty()) {
+            return body;
+        }
+        Map<String, Object> result = body;
+        for (var entry : body.entrySet()) {
+            var value = replace(entry.getKey(), entry.getValue());
+            if (value == entry.getValue() && deepReplacement) {
+                value = replaceNested(entry.getValue());
+            }
+            if (value != entry.getValue()) {
+                if (result == body) {
+                    result = new LinkedHashMap<>(body);
+                }
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Walks maps, collections and arrays replacing the injected variables found in them. Containers are only copied
+     * when something inside them is replaced.
+     */
+    private Object replaceNested(Object original) {
+        if (original instanceof Map<?, ?> map) {
+            Map<Object, Object> result = null;
+            for (var entry : map.entrySet()) {
+                var value = replaceValue(entry.getValue());
+                if (value != entry.getValue()) {
+                    if (result == null) {
+                        result = new LinkedHashMap<>(map);
+                    }
+                    result.put(entry.getKey(), value);
+                }
+            }
+            return result == null ? original : result;
+        }
+        if (original instanceof Collection<?> collection) {
+            List<Object> result = null;
+            int i = 0;
+            for (var element : collection) {
+                var value = replaceValue(element);
+                if (value != element && result == null) {
+                    result = new ArrayList<>(collection);
+                }
+                if (result != null) {
+                    result.set(i, value);
+                }
+                i++;
+            }
+            return result == null ? original : result;
+        }
+        if (original instanceof Object[] array) {
+            Object[] result = null;
+            for (int i = 0; i < array.length; i++) {
+                var value = replaceValue(array[i]);
+                if (value != array[i]) {
+                    if (result == null) {
+                        result = array.clone();
+                    }
+                    result[i] = value;
+                }
+            }
+            return result == null ? original : result;
+        }
+        return original;
+    }
+
+    private Object replaceValue(Object original) {
+        var value = replace("nested", original);
+        return value == original ? replaceNested(original) : value;
     }
 
     @SuppressWarnings({ "unchecked", "removal" })
-    public synchronized <T> T inject(String key, String type) {
+    public <T> T inject(String key, String type) {
         log.debug("Injecting variable with key '{}' and type '{}'.", key, type);
-        if (!injectionMap.containsKey(key)) {
+        return (T) injectionMap.computeIfAbsent(key, id -> {
             log.debug("Injection map doesn't contain the key, generating a new one.");
-            injectionMap.put(key, switch (type.toLowerCase()) {
+            Object result = switch (type.toLowerCase()) {
                 case "boolean" -> new Boolean(false);
                 case "integer" -> new Integer(0);
                 case "string", "object" -> new String();
@@ -52,8 +146,26 @@ public class VariableInjectionServiceImpl implements VariableInjectionService {
                         throw new GeneratedClassNotFoundException(type, e);
                     }
                 }
-            });
+            };
+            injectedIds.put(new Identity(result), id);
+            return result;
+        });
+    }
+
+    /**
+     * Key that compares the wrapped object by identity, as injected variables are placeholders that may be equal to
+     * values set by the user.
+     */
+    private record Identity(Object value) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Identity identity && identity.value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(value);
         }
-        return (T) injectionMap.get(key);
     }
 }
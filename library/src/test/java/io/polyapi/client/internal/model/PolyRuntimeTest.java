@@ -0,0 +1,88 @@
+package io.polyapi.client.internal.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PolyRuntimeTest {
+
+    @Test
+    public void acquireSameConfigurationTest() {
+        try (PolyRuntime runtime = PolyRuntime.acquire(createConfiguration("client1"));
+             PolyRuntime sameRuntime = PolyRuntime.acquire(createConfiguration("client1"));
+             PolyRuntime otherRuntime = PolyRuntime.acquire(createConfiguration("client2"))) {
+            assertThat(sameRuntime, sameInstance(runtime));
+            assertThat(sameRuntime.getHttpClient(), sameInstance(runtime.getHttpClient()));
+            assertThat(otherRuntime, not(sameInstance(runtime)));
+        }
+    }
+
+    @Test
+    public void releaseTest() {
+        var configuration = createConfiguration("client3");
+        PolyRuntime runtime = PolyRuntime.acquire(configuration);
+        PolyRuntime sameRuntime = PolyRuntime.acquire(configuration);
+        runtime.close();
+        try (PolyRuntime stillSameRuntime = PolyRuntime.acquire(configuration)) {
+            assertThat(stillSameRuntime, sameInstance(runtime));
+        }
+        sameRuntime.close();
+        try (PolyRuntime newRuntime = PolyRuntime.acquire(configuration)) {
+            assertThat(newRuntime, not(sameInstance(runtime)));
+        }
+    }
+
+    @Test
+    public void contextCloseTest() {
+        var configuration = createConfiguration("client4");
+        var context = new PolyContext(configuration);
+        try (PolyRuntime runtime = PolyRuntime.acquire(configuration)) {
+            context.close();
+            context.close();
+            try (PolyRuntime sameRuntime = PolyRuntime.acquire(configuration)) {
+                assertThat(sameRuntime, sameInstance(runtime));
+            }
+        }
+    }
+
+    @Test
+    public void parallelMapConcurrencyTest() {
+        var properties = createProperties("client5");
+        properties.setProperty("io.polyapi.http.requests.host.max", "2");
+        var configuration = new PolyContextConfiguration(properties);
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        try (PolyRuntime runtime = PolyRuntime.acquire(configuration)) {
+            runtime.getProxyFactory().createParallelMapper().map(IntStream.range(0, 20).iterator(), input -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return running.decrementAndGet();
+            }, null);
+        }
+        assertThat(maxRunning.get() <= 2, equalTo(true));
+    }
+
+    private PolyContextConfiguration createConfiguration(String clientId) {
+        return new PolyContextConfiguration(createProperties(clientId));
+    }
+
+    private Properties createProperties(String clientId) {
+        var properties = new Properties();
+        properties.setProperty("io.polyapi.host", "http://localhost");
+        properties.setProperty("io.polyapi.port", "8080");
+        properties.setProperty("io.polyapi.api.key", "apiKey");
+        properties.setProperty("io.polyapi.client.id", clientId);
+        return properties;
+    }
+}
@@ -5,6 +5,8 @@ import io.polyapi.client.api.model.PolyMetadata;
 import io.polyapi.client.api.model.function.PolyServerFunction;
 import io.polyapi.commons.api.model.PolyObject;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Mock interface that extends {@link PolyObject}
  */
@@ -13,4 +15,6 @@ import io.polyapi.commons.api.model.PolyObject;
 public interface MockPolyServerFunction extends PolyServerFunction {
 
   String doMagic(String parameter);
+
+  CompletableFuture<String> doMagicAsync(String parameter);
 }
@@ -0,0 +1,19 @@
+package io.polyapi.client.internal.proxy;
+
+import io.polyapi.client.api.model.PolyEntity;
+import io.polyapi.client.api.model.PolyMetadata;
+import io.polyapi.client.api.model.variable.RetrievableServerVariableHandler;
+
+/**
+ * Mock server variable handler with a {@link String} value.
+ */
+@PolyEntity("This is a test variable")
+@PolyMetadata(paramTypes = "String")
+public interface MockServerVariableHandler extends RetrievableServerVariableHandler<String> {
+
+  @Override
+  String get();
+
+  @Override
+  void update(String value);
+}
@@ -1,18 +1,25 @@
 package io.polyapi.client.internal.proxy;
 
 import io.polyapi.client.api.model.PolyEntity;
+import io.polyapi.client.internal.service.AsyncDispatcher;
 import io.polyapi.client.internal.service.InvocationService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.powermock.api.mockito.PowerMockito;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,4 +43,41 @@ public class PolyProxyFactoryTest {
         assertThat(proxy.doMagic(DEFAULT_STRING), equalTo(DEFAULT_STRING));
         verify(serviceMock).invokeServerFunction(eq(MockPolyServerFunction.class), eq(entityId), eq(Map.of("parameter", DEFAULT_STRING)), eq(String.class));
     }
+
+    @Test
+    public void createServerVariableHandlerTest() {
+        String entityId = MockServerVariableHandler.class.getAnnotation(PolyEntity.class).value();
+        var serviceMock = PowerMockito.mock(InvocationService.class);
+        when(serviceMock.getVariable(eq(entityId), eq(String.class))).thenReturn(DEFAULT_STRING);
+        var handler = new PolyProxyFactory(serviceMock, null).createServerVariableHandler(MockServerVariableHandler.class);
+        assertThat(handler.get(), equalTo(DEFAULT_STRING));
+        assertThat(handler.get(), equalTo(DEFAULT_STRING));
+        handler.update(DEFAULT_STRING);
+        verify(serviceMock, times(2)).getVariable(eq(entityId), eq(String.class));
+        verify(serviceMock).updateVariable(eq(entityId), eq(Map.of("value", DEFAULT_STRING)));
+    }
+
+    @Test
+    public void createProxyAsyncTest() throws Exception {
+        String entityId = MockPolyServerFunction.class.getAnnotation(PolyEntity.class).value();
+        var serviceMock = PowerMockito.mock(InvocationService.class);
+        when(serviceMock.<String>invokeServerFunctionAsync(eq(MockPolyServerFunction.class), eq(entityId), anyMap(), eq(String.class))).thenReturn(CompletableFuture.completedFuture(DEFAULT_STRING));
+        var proxy = new PolyProxyFactory(serviceMock, null).createServerFunctionProxy(MockPolyServerFunction.class);
+        assertThat(proxy.doMagicAsync(DEFAULT_STRING).get(10, SECONDS), equalTo(DEFAULT_STRING));
+        verify(serviceMock).invokeServerFunctionAsync(eq(MockPolyServerFunction.class), eq(entityId), eq(Map.of("parameter", DEFAULT_STRING)), eq(String.class));
+    }
+
+    @Test
+    public void createProxyAsyncTimeoutTest() {
+        String entityId = MockPolyServerFunction.class.getAnnotation(PolyEntity.class).value();
+        var serviceMock = PowerMockito.mock(InvocationService.class);
+        var call = new CompletableFuture<String>();
+        when(serviceMock.<String>invokeServerFunctionAsync(eq(MockPolyServerFunction.class), eq(entityId), anyMap(), eq(String.class))).thenReturn(call);
+        try (var dispatcher = new AsyncDispatcher(1, 50L)) {
+            var proxy = new PolyProxyFactory(serviceMock, null, dispatcher).createServerFunctionProxy(MockPolyServerFunction.class);
+            var exception = assertThrows(ExecutionException.class, () -> proxy.doMagicAsync(DEFAULT_STRING).get(10, SECONDS));
+            assertThat(exception.getCause(), instanceOf(TimeoutException.class));
+            assertThat(call.isCancelled(), equalTo(true));
+        }
+    }
 }
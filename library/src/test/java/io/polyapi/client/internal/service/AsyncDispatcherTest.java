@@ -0,0 +1,53 @@
+package io.polyapi.client.internal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link AsyncDispatcher}.
+ */
+public class AsyncDispatcherTest {
+
+    @Test
+    public void dispatchBlockingCancelTest() throws Exception {
+        try (var dispatcher = new AsyncDispatcher(2, 0L)) {
+            var started = new CountDownLatch(1);
+            var interrupted = new CountDownLatch(1);
+            var result = dispatcher.dispatchBlocking(() -> block(started, interrupted));
+            assertThat(started.await(10, SECONDS), equalTo(true));
+            result.cancel(true);
+            assertThat(interrupted.await(10, SECONDS), equalTo(true));
+        }
+    }
+
+    @Test
+    public void dispatchBlockingTimeoutTest() throws Exception {
+        try (var dispatcher = new AsyncDispatcher(2, 100L)) {
+            var started = new CountDownLatch(1);
+            var interrupted = new CountDownLatch(1);
+            var result = dispatcher.dispatchBlocking(() -> block(started, interrupted));
+            assertThat(assertThrows(ExecutionException.class, () -> result.get(10, SECONDS)).getCause(), instanceOf(TimeoutException.class));
+            assertThat(interrupted.await(10, SECONDS), equalTo(true));
+            assertThat(dispatcher.dispatchBlocking(() -> "ok").get(10, SECONDS), equalTo("ok"));
+        }
+    }
+
+    private String block(CountDownLatch started, CountDownLatch interrupted) {
+        started.countDown();
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return "late";
+    }
+}
@@ -0,0 +1,194 @@
+package io.polyapi.client.internal.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.polyapi.commons.api.error.PolyApiException;
+import io.polyapi.commons.api.service.PolyApiService;
+import io.polyapi.commons.internal.http.DefaultHttpClient;
+import io.polyapi.commons.internal.http.HttpClientConfiguration;
+import io.polyapi.commons.internal.json.JacksonJsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link BatchingInvoker}.
+ */
+public class BatchingInvokerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private HttpServer server;
+    private PolyApiService service;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/functions/server/double/execute", exchange -> {
+            singleCalls.incrementAndGet();
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                respond(exchange, objectMapper.readTree(exchange.getRequestBody()).get("value").asInt() * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+        server.createContext("/functions/server/double/execute-batch", exchange -> {
+            batchCalls.incrementAndGet();
+            var bodies = objectMapper.readTree(exchange.getRequestBody());
+            respond(exchange, IntStream.range(0, bodies.size())
+                    .mapToObj(i -> bodies.get(i).get("value").asInt() * 2)
+                    .toList());
+        });
+        server.start();
+        service = new PolyApiService(new DefaultHttpClient(HttpClientConfiguration.builder("apiKey").build()), new JacksonJsonParser(), "http://localhost", server.getAddress().getPort());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void submitBatchTest() throws Exception {
+        try (var invoker = new BatchingInvoker(service, new BatchConfiguration(50, 10, 2, "functions/%s/%s/execute-batch"))) {
+            var results = submit(invoker, 3);
+            assertThat(results.get(0).get(10, SECONDS), equalTo(2));
+            assertThat(results.get(2).get(10, SECONDS), equalTo(6));
+            assertThat(batchCalls.get(), equalTo(1));
+            assertThat(singleCalls.get(), equalTo(0));
+        }
+    }
+
+    @Test
+    public void submitMissingBatchEndpointTest() throws Exception {
+        try (var invoker = new BatchingInvoker(service, new BatchConfiguration(50, 10, 2, "functions/%s/%s/missing"))) {
+            var results = submit(invoker, 3);
+            assertThat(results.get(2).get(10, SECONDS), equalTo(6));
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, SECONDS);
+            assertThat(singleCalls.get(), equalTo(3));
+        }
+    }
+
+    @Test
+    public void submitParallelTest() throws Exception {
+        try (var invoker = new BatchingInvoker(service, new BatchConfiguration(10, 4, 2, null))) {
+            var results = submit(invoker, 8);
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, SECONDS);
+            assertThat(results.get(7).get(), equalTo(16));
+            assertThat(singleCalls.get(), equalTo(8));
+            assertThat(maxRunning.get() <= 2, equalTo(true));
+        }
+    }
+
+    @Test
+    public void submitDispatchFailureTest() {
+        var failingService = new PolyApiService(null, new JacksonJsonParser(), "http://localhost", server.getAddress().getPort()) {
+            @Override
+            public <I, O> CompletableFuture<O> postAsync(String relativePath, I body, Type expectedResponseType) {
+                throw new PolyApiException("Serialization failed.");
+            }
+        };
+        for (var path : Arrays.asList("functions/%s/%s/execute-batch", null)) {
+            try (var invoker = new BatchingInvoker(failingService, new BatchConfiguration(10, 4, 2, path))) {
+                for (var result : submit(invoker, 3)) {
+                    var exception = assertThrows(ExecutionException.class, () -> result.get(10, SECONDS));
+                    assertThat(exception.getCause(), instanceOf(PolyApiException.class));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void submitQueuedFailuresTest() throws Exception {
+        var pending = new CompletableFuture<Object>();
+        var sent = new AtomicInteger();
+        var failingService = new PolyApiService(null, new JacksonJsonParser(), "http://localhost", server.getAddress().getPort()) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <I, O> CompletableFuture<O> postAsync(String relativePath, I body, Type expectedResponseType) {
+                if (sent.incrementAndGet() == 1) {
+                    return (CompletableFuture<O>) pending;
+                }
+                throw new PolyApiException("Serialization failed.");
+            }
+        };
+        try (var invoker = new BatchingInvoker(failingService, new BatchConfiguration(10, 20000, 1, null))) {
+            // The calls queue behind the first one and then fail one after the other as soon as it ends.
+            var results = submit(invoker, 20000);
+            pending.complete(2);
+            assertThat(results.get(0).get(10, SECONDS), equalTo(2));
+            var exception = assertThrows(ExecutionException.class, () -> results.get(19999).get(10, SECONDS));
+            assertThat(exception.getCause(), instanceOf(PolyApiException.class));
+            assertThat(sent.get(), equalTo(20000));
+        }
+    }
+
+    @Test
+    public void submitCancelTest() throws Exception {
+        var requests = new CopyOnWriteArrayList<CompletableFuture<Object>>();
+        var pendingService = new PolyApiService(null, new JacksonJsonParser(), "http://localhost", server.getAddress().getPort()) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <I, O> CompletableFuture<O> postAsync(String relativePath, I body, Type expectedResponseType) {
+                var request = new CompletableFuture<Object>();
+                requests.add(request);
+                return (CompletableFuture<O>) request;
+            }
+        };
+        try (var invoker = new BatchingInvoker(pendingService, new BatchConfiguration(10, 2, 1, null))) {
+            var results = submit(invoker, 2);
+            for (int i = 0; i < 100 && requests.isEmpty(); i++) {
+                Thread.sleep(10);
+            }
+            assertThat(requests.size(), equalTo(1));
+            results.get(0).cancel(true);
+            assertThat(requests.get(0).isCancelled(), equalTo(true));
+            assertThat(requests.size(), equalTo(2));
+            requests.get(1).complete(4);
+            assertThat(results.get(1).get(10, SECONDS), equalTo(4));
+        }
+    }
+
+    private List<CompletableFuture<Integer>> submit(BatchingInvoker invoker, int amount) {
+        return IntStream.range(1, amount + 1)
+                .mapToObj(i -> invoker.<Integer>submit("server", "double", Map.of("value", i), Integer.class))
+                .toList();
+    }
+
+    private void respond(HttpExchange exchange, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.polyapi.client.internal.service;
+
+import io.polyapi.client.error.invocation.delegate.DelegateExecutionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link CustomFunctionInvoker}.
+ */
+public class CustomFunctionInvokerTest {
+
+    @Test
+    public void invokeTest() {
+        var invoker = new CustomFunctionInvoker(MockCustomFunction.class);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("count", 3);
+        body.put("prefix", "ab");
+        assertThat(invoker.invoke(body), equalTo("ababab"));
+    }
+
+    @Test
+    public void invokeErrorTest() {
+        var invoker = new CustomFunctionInvoker(MockCustomFunction.class);
+        Map<String, Object> body = new HashMap<>();
+        body.put("prefix", null);
+        body.put("count", 3);
+        assertThrows(DelegateExecutionException.class, () -> invoker.invoke(body));
+    }
+
+    @Test
+    public void invokeInvalidArgumentsTest() {
+        var invoker = new CustomFunctionInvoker(MockCustomFunction.class);
+        assertThrows(IllegalArgumentException.class, () -> invoker.invoke(Map.of("prefix", "ab", "count", "three")));
+    }
+
+    @Test
+    public void invokeFatalErrorTest() {
+        var invoker = new CustomFunctionInvoker(MockCustomFunction.class);
+        // Repeating the prefix that many times exceeds the maximum size of a string, which String reports as an Error.
+        assertThrows(OutOfMemoryError.class, () -> invoker.invoke(Map.of("prefix", "ab", "count", Integer.MAX_VALUE)));
+    }
+}
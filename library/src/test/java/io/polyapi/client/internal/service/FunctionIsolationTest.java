@@ -0,0 +1,73 @@
+package io.polyapi.client.internal.service;
+
+import io.polyapi.client.error.invocation.isolation.BulkheadFullException;
+import io.polyapi.client.error.invocation.isolation.CircuitBreakerOpenException;
+import io.polyapi.commons.api.error.PolyApiException;
+import io.polyapi.commons.api.error.http.BadRequestException;
+import io.polyapi.commons.api.error.parse.JsonToObjectParsingException;
+import io.polyapi.commons.api.error.parse.ParsingException;
+import io.polyapi.commons.api.http.ResponseRecord;
+import io.polyapi.commons.api.metrics.PolyMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link FunctionIsolation}.
+ */
+public class FunctionIsolationTest {
+
+    @Test
+    public void circuitBreakerTest() {
+        var clock = new AtomicLong();
+        var isolation = new FunctionIsolation(new IsolationConfiguration(4, 4, 50, 100, 0, 1000, 2, 0, Map.of(), 0), PolyMetrics.NOOP, clock::get);
+        assertThat(isolation.execute("function", () -> "ok"), equalTo("ok"));
+        assertThat(isolation.execute("function", () -> "ok"), equalTo("ok"));
+        for (int i = 0; i < 2; i++) {
+            assertThrows(PolyApiException.class, () -> isolation.execute("function", () -> {
+                throw new PolyApiException(new IOException("Connection reset."));
+            }));
+        }
+        assertThrows(CircuitBreakerOpenException.class, () -> isolation.execute("function", () -> "ok"));
+        assertThat(isolation.execute("other", () -> "ok"), equalTo("ok"));
+        clock.set(1_000_000_000L);
+        assertThat(isolation.execute("function", () -> "ok"), equalTo("ok"));
+        assertThat(isolation.execute("function", () -> "ok"), equalTo("ok"));
+        assertThat(isolation.execute("function", () -> "ok"), equalTo("ok"));
+    }
+
+    @Test
+    public void circuitBreakerIgnoredErrorsTest() {
+        var isolation = new FunctionIsolation(new IsolationConfiguration(4, 4, 50, 100, 0, 1000, 2, 0, Map.of(), 0), PolyMetrics.NOOP, () -> 0L);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ParsingException.class, () -> isolation.execute("function", () -> {
+                throw new JsonToObjectParsingException("{", String.class, new IOException("Unexpected end of input."));
+            }));
+            assertThrows(BadRequestException.class, () -> isolation.execute("function", () -> {
+                throw new BadRequestException(new ResponseRecord(Map.of(), null, 400));
+            }));
+        }
+        assertThat(isolation.execute("function", () -> "ok"), equalTo("ok"));
+    }
+
+    @Test
+    public void bulkheadTest() {
+        var isolation = new FunctionIsolation(new IsolationConfiguration(0, 1, 100, 100, 0, 0, 1, 1, Map.of("limited", 2), 0), PolyMetrics.NOOP);
+        var first = new CompletableFuture<String>();
+        var second = new CompletableFuture<String>();
+        isolation.executeAsync("limited", () -> first);
+        isolation.executeAsync("limited", () -> second);
+        assertThat(isolation.executeAsync("limited", () -> CompletableFuture.completedFuture("ok")).isCompletedExceptionally(), equalTo(true));
+        assertThat(isolation.execute("function", () -> "ok"), equalTo("ok"));
+        first.complete("ok");
+        assertThat(isolation.executeAsync("limited", () -> CompletableFuture.completedFuture("ok")).join(), equalTo("ok"));
+        assertThrows(BulkheadFullException.class, () -> isolation.execute("function", () -> isolation.execute("function", () -> "ok")));
+    }
+}
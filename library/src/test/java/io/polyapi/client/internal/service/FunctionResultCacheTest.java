@@ -0,0 +1,53 @@
+package io.polyapi.client.internal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Test class for {@link FunctionResultCache}.
+ */
+public class FunctionResultCacheTest {
+
+    @Test
+    public void getTest() {
+        var clock = new AtomicLong();
+        var calls = new AtomicInteger();
+        var cache = new FunctionResultCache(Map.of("cached", 100L), 10, clock::get);
+        assertThat(cache.isCached("cached"), equalTo(true));
+        assertThat(cache.isCached("other"), equalTo(false));
+        assertThat(cache.get("cached", "{\"a\":1}", calls::incrementAndGet), equalTo(1));
+        assertThat(cache.get("cached", "{\"a\":1}", calls::incrementAndGet), equalTo(1));
+        assertThat(cache.get("cached", "{\"a\":2}", calls::incrementAndGet), equalTo(2));
+        clock.set(100);
+        assertThat(cache.get("cached", "{\"a\":1}", calls::incrementAndGet), equalTo(3));
+        assertThat(cache.getHitCount(), equalTo(1L));
+        assertThat(cache.getMissCount(), equalTo(3L));
+    }
+
+    @Test
+    public void getAsyncTest() {
+        var calls = new AtomicInteger();
+        var cache = new FunctionResultCache(Map.of("cached", 100L), 10, () -> 0L);
+        var pending = new CompletableFuture<Integer>();
+        var first = cache.getAsync("cached", "{\"a\":1}", () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        assertThat(first, sameInstance(pending));
+        pending.complete(1);
+        assertThat(cache.getAsync("cached", "{\"a\":1}", () -> CompletableFuture.completedFuture(calls.incrementAndGet())).join(), equalTo(1));
+        assertThat(cache.get("cached", "{\"a\":1}", calls::incrementAndGet), equalTo(1));
+        assertThat(cache.getAsync("cached", "{\"a\":2}", () -> CompletableFuture.<Integer>failedFuture(new IllegalStateException())).isCompletedExceptionally(), equalTo(true));
+        assertThat(cache.getAsync("cached", "{\"a\":2}", () -> CompletableFuture.completedFuture(calls.incrementAndGet())).join(), equalTo(2));
+        assertThat(calls.get(), equalTo(2));
+        assertThat(cache.getHitCount(), equalTo(2L));
+    }
+}
@@ -0,0 +1,15 @@
+package io.polyapi.client.internal.service;
+
+import io.polyapi.client.api.model.PolyEntity;
+import io.polyapi.client.api.model.PolyMetadata;
+import io.polyapi.client.api.model.function.PolyCustomFunction;
+
+/**
+ * Mock custom function whose delegate is {@link io.polyapi.client.internal.service.delegate.MockCustomFunction}.
+ */
+@PolyEntity("mockCustomFunction")
+@PolyMetadata(paramTypes = {"String", "Integer"}, paramNames = {"prefix", "count"})
+public interface MockCustomFunction extends PolyCustomFunction {
+
+    String repeat(String prefix, Integer count);
+}
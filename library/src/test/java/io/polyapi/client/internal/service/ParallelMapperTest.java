@@ -0,0 +1,88 @@
+package io.polyapi.client.internal.service;
+
+import io.polyapi.client.api.ParallelOptions;
+import io.polyapi.commons.api.error.PolyApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link ParallelMapper}.
+ */
+public class ParallelMapperTest {
+    private AsyncDispatcher dispatcher;
+    private ParallelMapper mapper;
+
+    @BeforeEach
+    public void setUp() {
+        dispatcher = new AsyncDispatcher(8, 0L);
+        mapper = new ParallelMapper(dispatcher);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dispatcher.close();
+    }
+
+    @Test
+    public void mapTest() {
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        var options = new ParallelOptions();
+        options.setConcurrency(3);
+        var result = mapper.map(IntStream.range(0, 50).boxed().iterator(), input -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return input * 2;
+        }, options);
+        assertThat(result.getResults(), equalTo(IntStream.range(0, 50).mapToObj(input -> input * 2).collect(toList())));
+        assertThat(maxRunning.get() <= 3, equalTo(true));
+        assertThat(result.getStats().getCalls(), equalTo(50));
+        assertThat(result.getStats().getSucceeded(), equalTo(50));
+    }
+
+    @Test
+    public void mapCollectErrorsTest() {
+        var options = new ParallelOptions();
+        options.setFailFast(false);
+        var result = mapper.map(List.of(1, 0, 2).iterator(), input -> 2 / input, options);
+        assertThat(result.getResults(), equalTo(Arrays.asList(2, null, 1)));
+        assertThat(result.getErrors().size(), equalTo(1));
+        assertThat(result.getErrors().get(0).getIndex(), equalTo(1));
+        assertThat(result.getErrors().get(0).getError(), instanceOf(ArithmeticException.class));
+        assertThat(result.getStats().getFailed(), equalTo(1));
+    }
+
+    @Test
+    public void mapFailFastTest() {
+        var calls = new AtomicInteger();
+        var options = new ParallelOptions();
+        options.setConcurrency(1);
+        var exception = assertThrows(PolyApiException.class, () -> mapper.map(IntStream.range(0, 100).boxed().iterator(), input -> {
+            calls.incrementAndGet();
+            if (input == 2) {
+                throw new IllegalStateException();
+            }
+            return input;
+        }, options));
+        assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+        assertThat(calls.get() < 100, equalTo(true));
+        assertThat(exception.getMessage(), equalTo("Parallel execution failed for input at index 2."));
+    }
+}
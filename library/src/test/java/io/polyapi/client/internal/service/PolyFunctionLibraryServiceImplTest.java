@@ -1,8 +1,70 @@
 package io.polyapi.client.internal.service;
 
+import com.sun.net.httpserver.HttpServer;
+import io.polyapi.commons.api.error.websocket.EventRegistrationException;
+import io.polyapi.commons.api.metrics.PolyMetrics;
+import io.polyapi.commons.api.websocket.WebSocketClient;
+import io.polyapi.commons.internal.http.DefaultHttpClient;
+import io.polyapi.commons.internal.http.HttpClientConfiguration;
+import io.polyapi.commons.internal.json.JacksonJsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.powermock.api.mockito.PowerMockito;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
 /**
  * Test class for {@link InvocationServiceImpl}.
  */
 public class PolyFunctionLibraryServiceImplTest {
-  // FIXME: Add tests.
+  private HttpServer server;
+  private List<String> requestedPaths;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    requestedPaths = new CopyOnWriteArrayList<>();
+    server.createContext("/variables", exchange -> {
+      requestedPaths.add(exchange.getRequestURI().getPath());
+      byte[] body = "\"value\"".getBytes();
+      exchange.getResponseHeaders().add("Content-type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void prefetchVariablesWatchFailureTest() {
+    var webSocketClient = PowerMockito.mock(WebSocketClient.class);
+    when(webSocketClient.registerVariableChangeEventHandler(eq("broken"), any(), any())).thenThrow(new EventRegistrationException("registerVariableChangeEventHandler", "broken"));
+    var variableCache = new ServerVariableCache(0, 10);
+    var service = new InvocationServiceImpl(new DefaultHttpClient(HttpClientConfiguration.builder("apiKey").build()), new JacksonJsonParser(), "http://localhost", server.getAddress().getPort(), "clientId",
+        webSocketClient, null, variableCache, new FunctionResultCache(Map.of(), 0), new FunctionTimeouts(Map.of()), BatchConfiguration.disabled(), IsolationConfiguration.disabled(), false, PolyMetrics.NOOP);
+    service.prefetchVariables(Map.of("watched", String.class, "broken", String.class));
+    assertThat(variableCache.get("watched"), notNullValue());
+    assertThat(variableCache.get("broken"), nullValue());
+    assertThat(requestedPaths, equalTo(List.of("/variables/watched/value")));
+  }
 }
@@ -0,0 +1,59 @@
+package io.polyapi.client.internal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Test class for {@link ServerVariableCache}.
+ */
+public class ServerVariableCacheTest {
+
+    @Test
+    public void expirationTest() {
+        var clock = new AtomicLong();
+        var cache = new ServerVariableCache(100, 10, clock::get);
+        cache.put("id", "value", cache.stamp());
+        clock.set(99);
+        assertThat(cache.get("id").value(), equalTo("value"));
+        clock.set(100);
+        assertThat(cache.get("id"), nullValue());
+    }
+
+    @Test
+    public void evictionTest() {
+        var cache = new ServerVariableCache(1000, 2);
+        cache.put("first", 1, cache.stamp());
+        cache.put("second", 2, cache.stamp());
+        cache.get("first");
+        cache.put("third", 3, cache.stamp());
+        assertThat(cache.get("first"), notNullValue());
+        assertThat(cache.get("second"), nullValue());
+        assertThat(cache.get("third"), notNullValue());
+    }
+
+    @Test
+    public void invalidationTest() {
+        var cache = new ServerVariableCache(1000, 10);
+        var stamp = cache.stamp();
+        cache.invalidate("id");
+        cache.put("id", "outdated", stamp);
+        assertThat(cache.get("id"), nullValue());
+    }
+
+    @Test
+    public void snapshotTest() {
+        var cache = new ServerVariableCache(0, 10);
+        cache.put("put", "value", cache.stamp());
+        cache.snapshot("snapshot", "value", cache.stamp());
+        assertThat(cache.get("put"), nullValue());
+        assertThat(cache.get("snapshot").value(), equalTo("value"));
+        cache.invalidate("snapshot");
+        assertThat(cache.get("snapshot"), nullValue());
+    }
+}
@@ -0,0 +1,46 @@
+package io.polyapi.client.internal.service;
+
+import io.polyapi.client.api.InjectedVariable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Test class for {@link VariableInjectionServiceImpl}.
+ */
+public class VariableInjectionServiceImplTest {
+
+    @Test
+    public void replaceTest() {
+        var service = new VariableInjectionServiceImpl();
+        String injected = service.inject("replaceTest", "string");
+        var result = service.replace(Map.of("injected", injected, "value", ""));
+        assertThat(result.get("injected"), instanceOf(InjectedVariable.class));
+        assertThat(((InjectedVariable) result.get("injected")).getId(), equalTo("replaceTest"));
+        assertThat(result.get("value"), equalTo(""));
+    }
+
+    @Test
+    public void replaceNothingTest() {
+        var service = new VariableInjectionServiceImpl();
+        service.inject("replaceNothingTest", "integer");
+        Map<String, Object> body = Map.of("value", 0, "nested", List.of(0));
+        assertThat(service.replace(body), sameInstance(body));
+    }
+
+    @Test
+    public void replaceDeepTest() {
+        var service = new VariableInjectionServiceImpl(true);
+        Integer injected = service.inject("replaceDeepTest", "integer");
+        var result = service.replace(Map.of("nested", Map.of("list", List.of(1, injected))));
+        var list = (List<?>) ((Map<?, ?>) result.get("nested")).get("list");
+        assertThat(list.get(0), equalTo(1));
+        assertThat(((InjectedVariable) list.get(1)).getId(), equalTo("replaceDeepTest"));
+    }
+}
@@ -0,0 +1,11 @@
+package io.polyapi.client.internal.service.delegate;
+
+/**
+ * Delegate of {@link io.polyapi.client.internal.service.MockCustomFunction}.
+ */
+public class MockCustomFunction {
+
+    public String repeat(String prefix, Integer count) {
+        return prefix.repeat(count);
+    }
+}
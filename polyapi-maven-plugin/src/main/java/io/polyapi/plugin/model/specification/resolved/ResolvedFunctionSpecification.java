@@ -62,6 +62,35 @@ public class ResolvedFunctionSpecification extends ResolvedSpecification {
         return format("%s(%s)", methodName, arguments.stream().map(Object::toString).collect(joining(", ")));
     }
 
+    /**
+     * Retrieves the return type of the asynchronous variant of the function, which wraps the boxed return type in a
+     * {@link java.util.concurrent.CompletableFuture}.
+     *
+     * @return String The asynchronous return type.
+     */
+    public String getAsyncReturnType() {
+        String result = getReturnType();
+        if (result.equals("<T> T")) {
+            return "<T> CompletableFuture<T>";
+        }
+        return format("CompletableFuture<%s>", switch (result) {
+            case "void" -> "Void";
+            case "boolean" -> "Boolean";
+            case "byte" -> "Byte";
+            case "short" -> "Short";
+            case "int" -> "Integer";
+            case "long" -> "Long";
+            case "float" -> "Float";
+            case "double" -> "Double";
+            case "char" -> "Character";
+            default -> result;
+        });
+    }
+
+    public String getAsyncMethodSignature() {
+        return format("%sAsync(%s)", methodName, arguments.stream().map(Object::toString).collect(joining(", ")));
+    }
+
     public Boolean isReturnsValue() {
         return !getReturnType().equalsIgnoreCase("void");
     }
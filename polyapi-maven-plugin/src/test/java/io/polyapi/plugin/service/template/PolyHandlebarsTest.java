@@ -0,0 +1,33 @@
+package io.polyapi.plugin.service.template;
+
+import io.polyapi.plugin.model.generation.ResolvedContext;
+import io.polyapi.plugin.model.specification.resolved.ResolvedServerVariableSpecification;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Test class for the templates compiled by {@link PolyHandlebars}.
+ */
+public class PolyHandlebarsTest {
+    private final PolyHandlebars handlebars = new PolyHandlebars();
+
+    @Test
+    public void generateVariTest() throws IOException {
+        var subcontext = new ResolvedContext("auth", "io.polyapi.auth", Set.of(), "Auth", List.of(), List.of(
+                new ResolvedServerVariableSpecification("3", "clientId", "io.polyapi.auth", Set.of(), "ClientId", "String", false)));
+        var content = handlebars.compile("Vari").apply(new ResolvedContext("", "io.polyapi", Set.of("io.polyapi.auth.Auth"), "Vari", List.of(subcontext), List.of(
+                new ResolvedServerVariableSpecification("1", "environment", "io.polyapi", Set.of(), "Environment", "String", false),
+                new ResolvedServerVariableSpecification("2", "password", "io.polyapi", Set.of(), "Password", "String", true))));
+        assertThat(content, containsString("public void collectServerVariables(java.util.List<Class<?>> serverVariableHandlerInterfaces) {"));
+        assertThat(content, containsString("serverVariableHandlerInterfaces.add(Environment.class);"));
+        assertThat(content, not(containsString("serverVariableHandlerInterfaces.add(Password.class);")));
+        assertThat(content, containsString("auth.collectServerVariables(serverVariableHandlerInterfaces);"));
+    }
+}